@@ -16,6 +16,7 @@ import com.wynntils.mc.utils.McUtils;
 import com.wynntils.wynn.model.LootrunModel;
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.stream.Stream;
 import net.minecraft.ChatFormatting;
 import net.minecraft.Util;
@@ -38,7 +39,8 @@ public class LootrunCommand extends CommandBase {
     private static final SuggestionProvider<CommandSourceStack> LOOTRUN_SUGGESTION_PROVIDER =
             (context, suggestions) -> SharedSuggestionProvider.suggest(
                     Stream.of(LootrunModel.LOOTRUNS.list())
-                            .map((name) -> name.replaceAll("\\.json$", ""))
+                            .map(LootrunModel::getLootrunName)
+                            .distinct()
                             .map(StringArgumentType::escapeIfRequired),
                     suggestions);
 
@@ -50,7 +52,8 @@ public class LootrunCommand extends CommandBase {
 
         if (!successful || startingPoint == null) {
             context.getSource()
-                    .sendFailure(new TranslatableComponent("feature.wynntils.lootrunUtils.lootrunCouldNotBeLoaded")
+                    .sendFailure(new TranslatableComponent(
+                                    "feature.wynntils.lootrunUtils.lootrunCouldNotBeLoaded", fileName)
                             .withStyle(ChatFormatting.RED));
             return 0;
         }
@@ -65,6 +68,25 @@ public class LootrunCommand extends CommandBase {
                                         start.getZ())
                                 .withStyle(ChatFormatting.GREEN),
                         false);
+
+        LootrunModel.getCompilation().ifPresent(compilation -> {
+            compilation.setProgressListener(progress -> McUtils.sendMessageToClient(new TranslatableComponent(
+                            "feature.wynntils.lootrunUtils.lootrunCompiling", Math.round(progress * 100))
+                    .withStyle(ChatFormatting.GRAY)));
+
+            compilation.getFuture().whenComplete((result, e) -> {
+                if (e == null) {
+                    McUtils.sendMessageToClient(
+                            new TranslatableComponent("feature.wynntils.lootrunUtils.lootrunCompiled", fileName)
+                                    .withStyle(ChatFormatting.GREEN));
+                } else if (!(e instanceof CancellationException)) {
+                    // a cancelled compilation was superseded by loading another lootrun, only failures are reported
+                    McUtils.sendMessageToClient(new TranslatableComponent(
+                                    "feature.wynntils.lootrunUtils.lootrunCouldNotBeLoaded", fileName)
+                            .withStyle(ChatFormatting.RED));
+                }
+            });
+        });
         return 1;
     }
 
@@ -229,11 +251,11 @@ public class LootrunCommand extends CommandBase {
 
     private int deleteLootrun(CommandContext<CommandSourceStack> context) {
         String name = StringArgumentType.getString(context, "name");
-        File file = new File(LootrunModel.LOOTRUNS, name + ".json");
-        if (!file.exists()) {
+        List<File> files = LootrunModel.getLootrunFiles(name);
+        if (files.isEmpty()) {
             context.getSource()
                     .sendFailure(new TranslatableComponent("feature.wynntils.lootrunUtils.lootrunDoesntExist", name));
-        } else if (file.delete()) {
+        } else if (files.stream().allMatch(File::delete)) {
             context.getSource()
                     .sendSuccess(
                             new TranslatableComponent("feature.wynntils.lootrunUtils.lootrunDeleted", name)
@@ -251,13 +273,14 @@ public class LootrunCommand extends CommandBase {
     private int renameLootrun(CommandContext<CommandSourceStack> context) {
         String oldName = StringArgumentType.getString(context, "old");
         String newName = StringArgumentType.getString(context, "new");
-        File oldFile = new File(LootrunModel.LOOTRUNS, oldName + ".json");
-        File newFile = new File(LootrunModel.LOOTRUNS, newName + ".json");
-        if (!oldFile.exists()) {
+        List<File> oldFiles = LootrunModel.getLootrunFiles(oldName);
+        if (oldFiles.isEmpty()) {
             context.getSource()
                     .sendFailure(
                             new TranslatableComponent("feature.wynntils.lootrunUtils.lootrunDoesntExist", oldName));
-        } else if (oldFile.renameTo(newFile)) {
+        } else if (oldFiles.stream()
+                .allMatch(oldFile -> oldFile.renameTo(new File(
+                        LootrunModel.LOOTRUNS, newName + oldFile.getName().substring(oldName.length()))))) {
             context.getSource()
                     .sendSuccess(
                             new TranslatableComponent("feature.wynntils.lootrunUtils.lootrunRenamed", oldName, newName)
@@ -272,6 +295,47 @@ public class LootrunCommand extends CommandBase {
         return 0;
     }
 
+    private int importLootrun(CommandContext<CommandSourceStack> context) {
+        return convertLootrun(context, true);
+    }
+
+    private int exportLootrun(CommandContext<CommandSourceStack> context) {
+        return convertLootrun(context, false);
+    }
+
+    private int convertLootrun(CommandContext<CommandSourceStack> context, boolean toBinary) {
+        String name = StringArgumentType.getString(context, "lootrun");
+        LootrunModel.LootrunConvertResult convertResult = LootrunModel.tryConvertLootrun(name, toBinary);
+
+        switch (convertResult) {
+            case CONVERTED -> {
+                context.getSource()
+                        .sendSuccess(
+                                new TranslatableComponent(
+                                                toBinary
+                                                        ? "feature.wynntils.lootrunUtils.lootrunImported"
+                                                        : "feature.wynntils.lootrunUtils.lootrunExported",
+                                                name)
+                                        .withStyle(ChatFormatting.GREEN),
+                                false);
+                return 1;
+            }
+            case ERROR_NOT_FOUND -> {
+                context.getSource()
+                        .sendFailure(
+                                new TranslatableComponent("feature.wynntils.lootrunUtils.lootrunDoesntExist", name));
+                return 0;
+            }
+            case ERROR_CONVERTING -> {
+                context.getSource()
+                        .sendFailure(new TranslatableComponent(
+                                "feature.wynntils.lootrunUtils.lootrunCouldNotBeConverted", name));
+                return 0;
+            }
+        }
+        return 0;
+    }
+
     private int addChest(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
         BlockPos pos = BlockPosArgument.getSpawnablePos(context, "pos");
 
@@ -389,6 +453,14 @@ public class LootrunCommand extends CommandBase {
                                 .suggests(LOOTRUN_SUGGESTION_PROVIDER)
                                 .then(Commands.argument("new", StringArgumentType.string())
                                         .executes(this::renameLootrun))))
+                .then(Commands.literal("import")
+                        .then(Commands.argument("lootrun", StringArgumentType.string())
+                                .suggests(LOOTRUN_SUGGESTION_PROVIDER)
+                                .executes(this::importLootrun)))
+                .then(Commands.literal("export")
+                        .then(Commands.argument("lootrun", StringArgumentType.string())
+                                .suggests(LOOTRUN_SUGGESTION_PROVIDER)
+                                .executes(this::exportLootrun)))
                 .then(Commands.literal("chest")
                         .then(Commands.argument("pos", BlockPosArgument.blockPos())
                                 .then(Commands.literal("add").executes(this::addChest)))
@@ -5,6 +5,7 @@
 package com.wynntils.commands;
 
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
 import com.wynntils.core.WynntilsMod;
@@ -12,8 +13,11 @@ import com.wynntils.core.commands.ClientCommandManager;
 import com.wynntils.core.commands.CommandBase;
 import com.wynntils.core.features.Feature;
 import com.wynntils.core.features.FeatureRegistry;
+import com.wynntils.core.webapi.ItemQueryIndex;
 import com.wynntils.core.webapi.WebManager;
+import com.wynntils.core.webapi.profiles.item.ItemProfile;
 import com.wynntils.mc.utils.McUtils;
+import com.wynntils.wynn.item.ItemStackTransformModel;
 import java.util.List;
 import net.minecraft.ChatFormatting;
 import net.minecraft.commands.CommandSourceStack;
@@ -25,6 +29,8 @@ import net.minecraft.network.chat.Style;
 import net.minecraft.network.chat.TextComponent;
 
 public class WynntilsCommand extends CommandBase {
+    private static final int MAX_ITEM_SEARCH_RESULTS = 20;
+
     @Override
     public void register(CommandDispatcher<CommandSourceStack> dispatcher) {
         LiteralArgumentBuilder<CommandSourceStack> builder = getBaseCommandBuilder();
@@ -47,6 +53,15 @@ public class WynntilsCommand extends CommandBase {
                 .then(Commands.literal("donate").executes(this::donateLink))
                 .then(Commands.literal("reload").executes(this::reload))
                 .then(Commands.literal("version").executes(this::version))
+                .then(Commands.literal("item")
+                        .then(Commands.literal("search")
+                                .then(Commands.argument("query", StringArgumentType.greedyString())
+                                        .executes(this::searchItems))
+                                .executes(this::searchItemsHelp)))
+                .then(Commands.literal("debug")
+                        .then(Commands.literal("itemcache")
+                                .then(Commands.literal("clear").executes(this::clearItemCache))
+                                .executes(this::itemCacheStats)))
                 .executes(this::help);
     }
 
@@ -75,6 +90,71 @@ public class WynntilsCommand extends CommandBase {
         return 1;
     }
 
+    private int searchItems(CommandContext<CommandSourceStack> context) {
+        ItemQueryIndex index = WebManager.getItemQueryIndex();
+        if (index == null) {
+            context.getSource()
+                    .sendFailure(new TextComponent("The item list is not loaded").withStyle(ChatFormatting.RED));
+            return 1;
+        }
+
+        long start = System.nanoTime();
+        ItemQueryIndex.Query query = index.parse(context.getArgument("query", String.class));
+        if (query == null) {
+            return searchItemsHelp(context);
+        }
+        List<ItemProfile> results = query.getResults();
+        long micros = (System.nanoTime() - start) / 1000;
+
+        MutableComponent text = new TextComponent(
+                        "Found " + results.size() + " of " + index.size() + " items in " + micros + "µs")
+                .withStyle(ChatFormatting.GOLD);
+        for (ItemProfile item : results.subList(0, Math.min(results.size(), MAX_ITEM_SEARCH_RESULTS))) {
+            text.append("\n");
+            text.append(new TextComponent(" - ").withStyle(ChatFormatting.DARK_GRAY));
+            text.append(new TextComponent(item.getDisplayName()).withStyle(item.getTier().getChatFormatting()));
+            text.append(new TextComponent(" (Lv. " + item.getLevelRequirement() + ")").withStyle(ChatFormatting.GRAY));
+        }
+        if (results.size() > MAX_ITEM_SEARCH_RESULTS) {
+            text.append(new TextComponent("\n...and " + (results.size() - MAX_ITEM_SEARCH_RESULTS) + " more")
+                    .withStyle(ChatFormatting.GRAY));
+        }
+
+        context.getSource().sendSuccess(text, false);
+        return 1;
+    }
+
+    private int searchItemsHelp(CommandContext<CommandSourceStack> context) {
+        context.getSource()
+                .sendFailure(new TextComponent("Usage: /wynntils item search <query> | Example: \"/wynntils item search"
+                                + " legendary helmet lvl:80-90 walkSpeed:>0\"")
+                        .withStyle(ChatFormatting.RED));
+        return 1;
+    }
+
+    private int itemCacheStats(CommandContext<CommandSourceStack> context) {
+        long hits = ItemStackTransformModel.getCacheHits();
+        long misses = ItemStackTransformModel.getCacheMisses();
+        long total = hits + misses;
+        String hitRate = total == 0 ? "-" : String.format("%.1f%%", hits * 100d / total);
+
+        MutableComponent text = new TextComponent("Item stack cache: ").withStyle(ChatFormatting.GOLD);
+        text.append(new TextComponent(ItemStackTransformModel.getCacheSize() + " entries, " + hits + " hits, "
+                        + misses + " misses (" + hitRate + " hit rate)")
+                .withStyle(ChatFormatting.YELLOW));
+
+        context.getSource().sendSuccess(text, false);
+        return 1;
+    }
+
+    private int clearItemCache(CommandContext<CommandSourceStack> context) {
+        ItemStackTransformModel.invalidateCache();
+
+        context.getSource()
+                .sendSuccess(new TextComponent("Cleared the item stack cache").withStyle(ChatFormatting.GREEN), false);
+        return 1;
+    }
+
     private int reload(CommandContext<CommandSourceStack> context) {
         List<Feature> enabledFeatures = FeatureRegistry.getFeatures().stream()
                 .filter(Feature::isEnabled)
@@ -139,6 +219,11 @@ public class WynntilsCommand extends CommandBase {
         //            text.append("\n");
         addCommandDescription(text, "wynntils", List.of("reload"), "This reloads all API data.");
         addCommandDescription(text, "wynntils", List.of("donate"), "This provides our Patreon link.");
+        addCommandDescription(
+                text,
+                "wynntils",
+                List.of("item", "search"),
+                "This searches the item list by type, tier, class, level and identifications.");
         addCommandDescription(
                 text,
                 "token",
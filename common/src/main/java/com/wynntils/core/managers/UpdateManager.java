@@ -7,6 +7,7 @@ package com.wynntils.core.managers;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.wynntils.core.WynntilsMod;
+import com.wynntils.core.webapi.WebManager;
 import com.wynntils.core.webapi.request.Request;
 import com.wynntils.core.webapi.request.RequestBuilder;
 import com.wynntils.core.webapi.request.RequestHandler;
@@ -58,9 +59,9 @@ public class UpdateManager extends CoreManager {
                 })
                 .build();
 
-        RequestHandler handler = new RequestHandler();
+        RequestHandler handler = WebManager.getHandler();
 
-        handler.addAndDispatch(versionRequest, true);
+        handler.addAndDispatchAsync(versionRequest);
 
         return future;
     }
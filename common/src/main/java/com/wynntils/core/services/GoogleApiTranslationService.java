@@ -6,6 +6,7 @@ package com.wynntils.core.services;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.wynntils.core.webapi.WebManager;
 import com.wynntils.core.webapi.request.RequestBuilder;
 import com.wynntils.core.webapi.request.RequestHandler;
 import com.wynntils.utils.StringUtils;
@@ -31,8 +32,8 @@ public class GoogleApiTranslationService extends CachingTranslationService {
         String url = "https://translate.googleapis.com/translate_a/single?client=gtx&sl=en&tl=" + toLanguage
                 + "&dt=t&q=" + encodedMessage;
 
-        RequestHandler handler = new RequestHandler();
-        handler.addAndDispatch(
+        RequestHandler handler = WebManager.getHandler();
+        handler.addAndDispatchAsync(
                 new RequestBuilder(url, "translate-" + requestNumber.getAndIncrement())
                         .handleJsonArray(json -> {
                             StringBuilder builder = new StringBuilder();
@@ -51,7 +52,6 @@ public class GoogleApiTranslationService extends CachingTranslationService {
                             // If Google translate return no data ( 500 error ), display default lang
                             handleTranslation.accept(null);
                         })
-                        .build(),
-                true);
+                        .build());
     }
 }
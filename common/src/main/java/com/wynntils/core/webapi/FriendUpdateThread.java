@@ -5,7 +5,6 @@
 package com.wynntils.core.webapi;
 
 import com.wynntils.core.WynntilsMod;
-import com.wynntils.core.webapi.request.RequestHandler;
 import com.wynntils.wynn.event.ChatMessageReceivedEvent;
 import java.util.regex.Pattern;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
@@ -54,14 +53,12 @@ public class FriendUpdateThread extends Thread {
 
     @Override
     public void run() {
-        RequestHandler handler = new RequestHandler();
-
         try {
             /*
             Thread.sleep(ONLINE_UPDATE_TIME);
 
             while (!isInterrupted() && friendsLeft > 0) {
-                WebManager.tryLoadFriends(handler);
+                WebManager.tryLoadFriends();
                 Thread.sleep(timeBetween);
                 --friendsLeft;
             }*/
@@ -69,8 +66,7 @@ public class FriendUpdateThread extends Thread {
             timeBetween = ONLINE_UPDATE_TIME;
 
             while (!isInterrupted()) {
-                WebManager.tryLoadFriends(handler);
-                // handler.dispatch();
+                WebManager.tryLoadFriends();
                 Thread.sleep(timeBetween);
             }
         } catch (InterruptedException ignored) {
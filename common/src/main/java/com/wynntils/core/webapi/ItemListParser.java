@@ -0,0 +1,99 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.webapi;
+
+import com.google.common.reflect.TypeToken;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.wynntils.core.webapi.profiles.item.IdentificationProfile;
+import com.wynntils.core.webapi.profiles.item.ItemProfile;
+import com.wynntils.core.webapi.profiles.item.ItemType;
+import com.wynntils.core.webapi.profiles.item.MajorIdentification;
+import com.wynntils.wynn.item.IdentificationOrderer;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Reads item_list.json in a single pass. Each item is deserialized straight from the stream and put into the final
+ * map, so the whole document is never held as a JSON tree.
+ */
+final class ItemListParser {
+    private static final Type STRING_MAP_TYPE = new TypeToken<HashMap<String, String>>() {}.getType();
+    private static final Type MAJOR_IDS_TYPE = new TypeToken<HashMap<String, MajorIdentification>>() {}.getType();
+    private static final Type MATERIAL_TYPES_TYPE = new TypeToken<HashMap<ItemType, String[]>>() {}.getType();
+
+    private ItemListParser() {}
+
+    /**
+     * @return the parsed item list, or null if the data is not an item list
+     */
+    static ItemList parse(Gson gson, Reader in) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) return null;
+
+        HashMap<String, ItemProfile> items = new HashMap<>();
+        HashMap<String, String> translatedReferences = null;
+        HashMap<String, String> internalIdentifications = null;
+        HashMap<String, MajorIdentification> majorIds = null;
+        HashMap<ItemType, String[]> materialTypes = null;
+        IdentificationOrderer identificationOrderer = null;
+
+        // Items read before the major ids are only linked to them at the end
+        List<ItemProfile> withoutMajorIds = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "items" -> {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        ItemProfile item = gson.fromJson(reader, ItemProfile.class);
+                        item.getStatuses().values().forEach(IdentificationProfile::calculateMinMax);
+                        if (majorIds != null) {
+                            item.addMajorIds(majorIds);
+                        } else {
+                            withoutMajorIds.add(item);
+                        }
+
+                        items.put(item.getDisplayName(), item);
+                    }
+                    reader.endArray();
+                }
+                case "translatedReferences" -> translatedReferences = gson.fromJson(reader, STRING_MAP_TYPE);
+                case "internalIdentifications" -> internalIdentifications = gson.fromJson(reader, STRING_MAP_TYPE);
+                case "majorIdentifications" -> majorIds = gson.fromJson(reader, MAJOR_IDS_TYPE);
+                case "materialTypes" -> materialTypes = gson.fromJson(reader, MATERIAL_TYPES_TYPE);
+                case "identificationOrder" -> identificationOrderer =
+                        gson.fromJson(reader, IdentificationOrderer.class);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (majorIds != null) {
+            for (ItemProfile item : withoutMajorIds) {
+                item.addMajorIds(majorIds);
+            }
+        }
+
+        items.values().forEach(ItemProfile::registerIdTypes);
+
+        return new ItemList(
+                items, translatedReferences, internalIdentifications, majorIds, materialTypes, identificationOrderer);
+    }
+
+    record ItemList(
+            HashMap<String, ItemProfile> items,
+            HashMap<String, String> translatedReferences,
+            HashMap<String, String> internalIdentifications,
+            HashMap<String, MajorIdentification> majorIds,
+            HashMap<ItemType, String[]> materialTypes,
+            IdentificationOrderer identificationOrderer) {}
+}
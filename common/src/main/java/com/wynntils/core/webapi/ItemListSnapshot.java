@@ -0,0 +1,386 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.webapi;
+
+import com.google.gson.Gson;
+import com.wynntils.core.WynntilsMod;
+import com.wynntils.core.webapi.profiles.item.IdentificationModifier;
+import com.wynntils.core.webapi.profiles.item.IdentificationProfile;
+import com.wynntils.core.webapi.profiles.item.ItemAttackSpeed;
+import com.wynntils.core.webapi.profiles.item.ItemDropType;
+import com.wynntils.core.webapi.profiles.item.ItemInfoContainer;
+import com.wynntils.core.webapi.profiles.item.ItemProfile;
+import com.wynntils.core.webapi.profiles.item.ItemTier;
+import com.wynntils.core.webapi.profiles.item.ItemType;
+import com.wynntils.core.webapi.profiles.item.MajorIdentification;
+import com.wynntils.wynn.item.IdentificationOrderer;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * A binary snapshot of the processed item list, so it does not need to be parsed and processed again on every launch.
+ *
+ * <p>Every string is stored once in a table and referenced by index, so equal strings share one instance once loaded.
+ * Identification ranges are stored as computed. The snapshot is only used if it was written by the same mod build
+ * from an item list with the same hash.
+ */
+final class ItemListSnapshot {
+    private static final int MAGIC = 0x57494C53; // "WILS"
+    private static final int FORMAT_VERSION = 1;
+
+    private ItemListSnapshot() {}
+
+    /**
+     * @return the item list in the snapshot, or null if there is no usable snapshot for the source hash
+     */
+    static ItemListParser.ItemList read(Gson gson, File file, String sourceHash) {
+        if (sourceHash == null || !file.exists()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) return null;
+            if (!in.readUTF().equals(getModVersion()) || !in.readUTF().equals(sourceHash)) return null;
+
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            return new Reader(in, strings).readItemList(gson);
+        } catch (IOException | RuntimeException e) {
+            WynntilsMod.warn("Could not read item list snapshot, it will be rebuilt.", e);
+            return null;
+        }
+    }
+
+    static void write(Gson gson, File file, String sourceHash, ItemListParser.ItemList itemList) {
+        if (sourceHash == null) return;
+
+        // The string table is only complete once everything else is written
+        Writer writer = new Writer();
+        try {
+            writer.writeItemList(gson, itemList);
+        } catch (IOException e) {
+            WynntilsMod.warn("Could not write item list snapshot.", e);
+            return;
+        }
+
+        file.getParentFile().mkdirs();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(getModVersion());
+            out.writeUTF(sourceHash);
+
+            out.writeInt(writer.strings.size());
+            for (String string : writer.strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            writer.body.writeTo(out);
+        } catch (IOException e) {
+            WynntilsMod.warn("Could not write item list snapshot.", e);
+            FileUtils.deleteQuietly(file);
+        }
+    }
+
+    // The profile classes can change between builds, so snapshots of other builds are not trusted
+    private static String getModVersion() {
+        return WynntilsMod.getVersion() + "-" + WynntilsMod.getBuildNumber();
+    }
+
+    private static final class Writer {
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIndices = new HashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(body);
+
+        private void writeItemList(Gson gson, ItemListParser.ItemList itemList) throws IOException {
+            writeStringMap(itemList.translatedReferences());
+            writeStringMap(itemList.internalIdentifications());
+
+            HashMap<String, MajorIdentification> majorIds = itemList.majorIds();
+            out.writeInt(majorIds == null ? -1 : majorIds.size());
+            if (majorIds != null) {
+                for (Map.Entry<String, MajorIdentification> entry : majorIds.entrySet()) {
+                    writeString(entry.getKey());
+                    writeString(entry.getValue().getName());
+                    writeString(entry.getValue().getDescription());
+                }
+            }
+
+            HashMap<ItemType, String[]> materialTypes = itemList.materialTypes();
+            out.writeInt(materialTypes == null ? -1 : materialTypes.size());
+            if (materialTypes != null) {
+                for (Map.Entry<ItemType, String[]> entry : materialTypes.entrySet()) {
+                    writeEnum(entry.getKey());
+                    writeStringList(entry.getValue() == null ? null : List.of(entry.getValue()));
+                }
+            }
+
+            // The orderer is small and has no accessors for its data, so it is kept as JSON
+            IdentificationOrderer identificationOrderer = itemList.identificationOrderer();
+            writeString(identificationOrderer == null ? null : gson.toJson(identificationOrderer));
+
+            out.writeInt(itemList.items().size());
+            for (ItemProfile item : itemList.items().values()) {
+                writeItem(item);
+            }
+        }
+
+        private void writeItem(ItemProfile item) throws IOException {
+            writeString(item.getDisplayName());
+            writeEnum(item.getTier());
+            out.writeBoolean(item.isIdentified());
+            out.writeInt(item.getPowderAmount());
+            writeEnum(item.getAttackSpeed());
+
+            ItemInfoContainer itemInfo = item.getItemInfo();
+            out.writeBoolean(itemInfo != null);
+            if (itemInfo != null) {
+                writeString(itemInfo.getMaterial());
+                writeEnum(itemInfo.getType());
+                writeString(itemInfo.getSet());
+                writeEnum(itemInfo.getDropType());
+                writeString(itemInfo.getArmorColor());
+            }
+
+            writeStringMap(item.getRawRequirements());
+            writeStringMap(item.getDamageTypes());
+
+            Map<String, Integer> defenseTypes = item.getDefenseTypes();
+            out.writeInt(defenseTypes == null ? -1 : defenseTypes.size());
+            if (defenseTypes != null) {
+                for (Map.Entry<String, Integer> entry : defenseTypes.entrySet()) {
+                    writeString(entry.getKey());
+                    out.writeInt(entry.getValue());
+                }
+            }
+
+            Map<String, IdentificationProfile> statuses = item.getStatuses();
+            out.writeInt(statuses == null ? -1 : statuses.size());
+            if (statuses != null) {
+                for (Map.Entry<String, IdentificationProfile> entry : statuses.entrySet()) {
+                    IdentificationProfile status = entry.getValue();
+                    writeString(entry.getKey());
+                    writeEnum(status.getType());
+                    out.writeInt(status.getBaseValue());
+                    out.writeBoolean(status.isFixed());
+                    out.writeInt(status.getMin());
+                    out.writeInt(status.getMax());
+                }
+            }
+
+            writeStringList(item.getMajorIdNames());
+            writeString(item.getRestriction());
+            writeString(item.getLore());
+        }
+
+        private void writeStringMap(Map<String, String> map) throws IOException {
+            out.writeInt(map == null ? -1 : map.size());
+            if (map == null) return;
+
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                writeString(entry.getKey());
+                writeString(entry.getValue());
+            }
+        }
+
+        private void writeStringList(List<String> list) throws IOException {
+            out.writeInt(list == null ? -1 : list.size());
+            if (list == null) return;
+
+            for (String string : list) {
+                writeString(string);
+            }
+        }
+
+        private void writeEnum(Enum<?> value) throws IOException {
+            writeString(value == null ? null : value.name());
+        }
+
+        private void writeString(String string) throws IOException {
+            if (string == null) {
+                out.writeInt(-1);
+                return;
+            }
+
+            Integer index = stringIndices.get(string);
+            if (index == null) {
+                index = strings.size();
+                strings.add(string);
+                stringIndices.put(string, index);
+            }
+
+            out.writeInt(index);
+        }
+    }
+
+    private record Reader(DataInputStream in, String[] strings) {
+        private ItemListParser.ItemList readItemList(Gson gson) throws IOException {
+            HashMap<String, String> translatedReferences = readStringMap();
+            HashMap<String, String> internalIdentifications = readStringMap();
+
+            HashMap<String, MajorIdentification> majorIds = null;
+            int majorIdCount = in.readInt();
+            if (majorIdCount >= 0) {
+                majorIds = new HashMap<>(majorIdCount * 2);
+                for (int i = 0; i < majorIdCount; i++) {
+                    majorIds.put(readString(), new MajorIdentification(readString(), readString()));
+                }
+            }
+
+            HashMap<ItemType, String[]> materialTypes = null;
+            int materialTypeCount = in.readInt();
+            if (materialTypeCount >= 0) {
+                materialTypes = new HashMap<>(materialTypeCount * 2);
+                for (int i = 0; i < materialTypeCount; i++) {
+                    ItemType type = readEnum(ItemType.class);
+                    List<String> materials = readStringList();
+                    materialTypes.put(type, materials == null ? null : materials.toArray(String[]::new));
+                }
+            }
+
+            String identificationOrder = readString();
+            IdentificationOrderer identificationOrderer = identificationOrder == null
+                    ? null
+                    : gson.fromJson(identificationOrder, IdentificationOrderer.class);
+
+            int itemCount = in.readInt();
+            HashMap<String, ItemProfile> items = new HashMap<>(itemCount * 2);
+            for (int i = 0; i < itemCount; i++) {
+                ItemProfile item = readItem();
+                if (majorIds != null) {
+                    item.addMajorIds(majorIds);
+                }
+                items.put(item.getDisplayName(), item);
+            }
+
+            items.values().forEach(ItemProfile::registerIdTypes);
+
+            return new ItemListParser.ItemList(
+                    items,
+                    translatedReferences,
+                    internalIdentifications,
+                    majorIds,
+                    materialTypes,
+                    identificationOrderer);
+        }
+
+        private ItemProfile readItem() throws IOException {
+            String displayName = readString();
+            ItemTier tier = readEnum(ItemTier.class);
+            boolean identified = in.readBoolean();
+            int powderAmount = in.readInt();
+            ItemAttackSpeed attackSpeed = readEnum(ItemAttackSpeed.class);
+
+            ItemInfoContainer itemInfo = null;
+            if (in.readBoolean()) {
+                itemInfo = new ItemInfoContainer(
+                        readString(),
+                        readEnum(ItemType.class),
+                        readString(),
+                        readEnum(ItemDropType.class),
+                        readString());
+            }
+
+            HashMap<String, String> requirements = readStringMap();
+            HashMap<String, String> damageTypes = readStringMap();
+
+            HashMap<String, Integer> defenseTypes = null;
+            int defenseCount = in.readInt();
+            if (defenseCount >= 0) {
+                defenseTypes = new HashMap<>(defenseCount * 2);
+                for (int i = 0; i < defenseCount; i++) {
+                    defenseTypes.put(readString(), in.readInt());
+                }
+            }
+
+            HashMap<String, IdentificationProfile> statuses = null;
+            int statusCount = in.readInt();
+            if (statusCount >= 0) {
+                statuses = new HashMap<>(statusCount * 2);
+                for (int i = 0; i < statusCount; i++) {
+                    String name = readString();
+                    statuses.put(
+                            name,
+                            new IdentificationProfile(
+                                    readEnum(IdentificationModifier.class),
+                                    in.readInt(),
+                                    in.readBoolean(),
+                                    in.readInt(),
+                                    in.readInt()));
+                }
+            }
+
+            List<String> majorIds = readStringList();
+            String restriction = readString();
+            String lore = readString();
+
+            return new ItemProfile(
+                    displayName,
+                    tier,
+                    identified,
+                    powderAmount,
+                    attackSpeed,
+                    itemInfo,
+                    requirements,
+                    damageTypes,
+                    defenseTypes,
+                    statuses,
+                    majorIds,
+                    restriction,
+                    lore);
+        }
+
+        private HashMap<String, String> readStringMap() throws IOException {
+            int size = in.readInt();
+            if (size < 0) return null;
+
+            HashMap<String, String> map = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                map.put(readString(), readString());
+            }
+            return map;
+        }
+
+        private List<String> readStringList() throws IOException {
+            int size = in.readInt();
+            if (size < 0) return null;
+
+            List<String> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(readString());
+            }
+            return list;
+        }
+
+        private <E extends Enum<E>> E readEnum(Class<E> enumClass) throws IOException {
+            String name = readString();
+            return name == null ? null : Enum.valueOf(enumClass, name);
+        }
+
+        private String readString() throws IOException {
+            int index = in.readInt();
+            return index < 0 ? null : strings[index];
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.webapi;
+
+import com.wynntils.core.webapi.profiles.item.IdentificationProfile;
+import com.wynntils.core.webapi.profiles.item.ItemProfile;
+import com.wynntils.core.webapi.profiles.item.ItemTier;
+import com.wynntils.core.webapi.profiles.item.ItemType;
+import com.wynntils.wynn.objects.ClassType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable index over the loaded {@link ItemProfile}s, answering queries like "legendary helmets between level
+ * 80 and 90 with walk speed" without scanning every profile.
+ *
+ * Every item gets a position, and the item types, tiers, classes and level buckets are bitsets of positions, so a
+ * query is a handful of bitset intersections. Each identification is a column of base values sorted together with the
+ * positions of the items having it, so value ranges are two binary searches.
+ */
+public final class ItemQueryIndex {
+    private static final int LEVEL_BUCKET_SIZE = 10;
+    private static final Pattern RANGE_PATTERN = Pattern.compile("(<=|>=|<|>|=)?(-?\\d+)(?:-(-?\\d+))?");
+
+    private final ItemProfile[] items;
+    private final int[] levels;
+    private final String[] lowerCaseNames;
+
+    private final Map<ItemType, BitSet> byType = new EnumMap<>(ItemType.class);
+    private final Map<ItemTier, BitSet> byTier = new EnumMap<>(ItemTier.class);
+    private final Map<ClassType, BitSet> byClass = new EnumMap<>(ClassType.class);
+    private final BitSet[] byLevelBucket;
+    // lower case short id name -> column
+    private final Map<String, IdentificationColumn> identifications = new HashMap<>();
+
+    public ItemQueryIndex(Collection<ItemProfile> profiles) {
+        items = profiles.toArray(new ItemProfile[0]);
+        Arrays.sort(items, Comparator.comparing(ItemProfile::getDisplayName));
+
+        levels = new int[items.length];
+        lowerCaseNames = new String[items.length];
+
+        int maxLevel = 0;
+        Map<String, List<int[]>> idValues = new HashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            ItemProfile item = items[i];
+
+            levels[i] = item.getLevelRequirement();
+            maxLevel = Math.max(maxLevel, levels[i]);
+            lowerCaseNames[i] = item.getDisplayName().toLowerCase(Locale.ROOT);
+
+            if (item.getTier() != null) {
+                byTier.computeIfAbsent(item.getTier(), k -> new BitSet(items.length)).set(i);
+            }
+
+            ItemType type = item.getItemInfo() == null ? null : item.getItemInfo().getType();
+            if (type != null) {
+                byType.computeIfAbsent(type, k -> new BitSet(items.length)).set(i);
+
+                if (type.getClassReq() != null) {
+                    byClass.computeIfAbsent(type.getClassReq(), k -> new BitSet(items.length)).set(i);
+                }
+            }
+
+            if (item.getStatuses() == null) continue;
+
+            for (Map.Entry<String, IdentificationProfile> entry : item.getStatuses().entrySet()) {
+                idValues.computeIfAbsent(entry.getKey().toLowerCase(Locale.ROOT), k -> new ArrayList<>())
+                        .add(new int[] {entry.getValue().getBaseValue(), i});
+            }
+        }
+
+        byLevelBucket = new BitSet[maxLevel / LEVEL_BUCKET_SIZE + 1];
+        for (int i = 0; i < byLevelBucket.length; i++) {
+            byLevelBucket[i] = new BitSet(items.length);
+        }
+        for (int i = 0; i < items.length; i++) {
+            byLevelBucket[Math.max(levels[i], 0) / LEVEL_BUCKET_SIZE].set(i);
+        }
+
+        idValues.forEach((name, values) -> identifications.put(name, new IdentificationColumn(values)));
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    /** Returns whether the given short identification name, like walkSpeed, is held by any item */
+    public boolean hasIdentification(String shortIdName) {
+        return identifications.containsKey(shortIdName.toLowerCase(Locale.ROOT));
+    }
+
+    public Set<String> getIdentificationNames() {
+        return identifications.keySet();
+    }
+
+    public Query query() {
+        return new Query();
+    }
+
+    /**
+     * Parses a whitespace separated query, where every term must match:
+     * <ul>
+     *   <li>an item type, tier or class name, like {@code helmet}, {@code legendary} or {@code mage}</li>
+     *   <li>{@code lvl:80-90}, {@code lvl:>=100} or {@code lvl:50} for the level requirement</li>
+     *   <li>an identification name, like {@code walkSpeed}, for items having it, or {@code walkSpeed:>10} for items
+     *   whose base value is in the range</li>
+     *   <li>anything else is searched for in the item names</li>
+     * </ul>
+     *
+     * @return The query, or null if a range in it couldn't be parsed
+     */
+    public Query parse(String queryString) {
+        Query query = query();
+        for (String term : queryString.trim().split("\\s+")) {
+            if (term.isEmpty()) continue;
+
+            String lowerCaseTerm = term.toLowerCase(Locale.ROOT);
+            int separator = lowerCaseTerm.indexOf(':');
+            if (separator > 0) {
+                String field = lowerCaseTerm.substring(0, separator);
+                int[] range = parseRange(lowerCaseTerm.substring(separator + 1));
+                if (range == null) return null;
+
+                if (field.equals("lvl") || field.equals("level")) {
+                    query.level(range[0], range[1]);
+                } else {
+                    query.identification(field, range[0], range[1]);
+                }
+                continue;
+            }
+
+            ItemType type = ItemType.fromString(lowerCaseTerm).orElse(null);
+            if (type != null) {
+                query.type(type);
+                continue;
+            }
+
+            ItemTier tier = findEnum(ItemTier.values(), lowerCaseTerm);
+            if (tier != null) {
+                query.tier(tier);
+                continue;
+            }
+
+            ClassType classType = findEnum(ClassType.values(), lowerCaseTerm);
+            if (classType != null && classType != ClassType.None) {
+                query.classType(classType);
+                continue;
+            }
+
+            if (identifications.containsKey(lowerCaseTerm)) {
+                query.identification(lowerCaseTerm, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                continue;
+            }
+
+            query.nameContains(lowerCaseTerm);
+        }
+        return query;
+    }
+
+    private static int[] parseRange(String range) {
+        Matcher matcher = RANGE_PATTERN.matcher(range);
+        if (!matcher.matches()) return null;
+
+        int value;
+        Integer upper = null;
+        try {
+            value = Integer.parseInt(matcher.group(2));
+            if (matcher.group(3) != null) upper = Integer.parseInt(matcher.group(3));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        if (upper != null) return new int[] {Math.min(value, upper), Math.max(value, upper)};
+
+        String comparator = matcher.group(1);
+        if (comparator == null || comparator.equals("=")) return new int[] {value, value};
+
+        return switch (comparator) {
+            case "<" -> new int[] {Integer.MIN_VALUE, value - 1};
+            case "<=" -> new int[] {Integer.MIN_VALUE, value};
+            case ">" -> new int[] {value + 1, Integer.MAX_VALUE};
+            default -> new int[] {value, Integer.MAX_VALUE};
+        };
+    }
+
+    private static <E extends Enum<E>> E findEnum(E[] values, String name) {
+        for (E value : values) {
+            if (value.name().equalsIgnoreCase(name)) return value;
+        }
+        return null;
+    }
+
+    /**
+     * A query against the index, narrowed down by each filter added to it. Filters are applied as they are added, so
+     * a query can be inspected, extended and inspected again.
+     */
+    public final class Query {
+        private final BitSet matches = new BitSet(items.length);
+
+        private Query() {
+            matches.set(0, items.length);
+        }
+
+        public Query type(ItemType type) {
+            return and(byType.get(type));
+        }
+
+        public Query tier(ItemTier tier) {
+            return and(byTier.get(tier));
+        }
+
+        public Query classType(ClassType classType) {
+            return and(byClass.get(classType));
+        }
+
+        /** Keeps the items whose level requirement is between min and max, inclusive */
+        public Query level(int min, int max) {
+            BitSet inRange = new BitSet(items.length);
+            int from = Math.max(min, 0) / LEVEL_BUCKET_SIZE;
+            int to = Math.min(Math.max(max, 0) / LEVEL_BUCKET_SIZE, byLevelBucket.length - 1);
+            for (int bucket = from; bucket <= to && min <= max; bucket++) {
+                BitSet bucketItems = byLevelBucket[bucket];
+                int bucketMin = bucket * LEVEL_BUCKET_SIZE;
+                int bucketMax = bucketMin + LEVEL_BUCKET_SIZE - 1;
+
+                if (min <= bucketMin && bucketMax <= max) {
+                    inRange.or(bucketItems);
+                    continue;
+                }
+
+                // only the buckets at the ends of the range are partially covered
+                for (int i = bucketItems.nextSetBit(0); i >= 0; i = bucketItems.nextSetBit(i + 1)) {
+                    if (levels[i] >= min && levels[i] <= max) inRange.set(i);
+                }
+            }
+            return and(inRange);
+        }
+
+        /** Keeps the items with the given identification, whose base value is between min and max, inclusive */
+        public Query identification(String shortIdName, int min, int max) {
+            IdentificationColumn column = identifications.get(shortIdName.toLowerCase(Locale.ROOT));
+            return and(column == null ? null : column.range(min, max));
+        }
+
+        /** Keeps the items with the given text in their name, ignoring case */
+        public Query nameContains(String text) {
+            String lowerCaseText = text.toLowerCase(Locale.ROOT);
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                if (!lowerCaseNames[i].contains(lowerCaseText)) matches.clear(i);
+            }
+            return this;
+        }
+
+        public int count() {
+            return matches.cardinality();
+        }
+
+        /** Returns the matching items, sorted by name */
+        public List<ItemProfile> getResults() {
+            List<ItemProfile> results = new ArrayList<>(matches.cardinality());
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                results.add(items[i]);
+            }
+            return results;
+        }
+
+        private Query and(BitSet filter) {
+            if (filter == null) {
+                matches.clear();
+            } else {
+                matches.and(filter);
+            }
+            return this;
+        }
+    }
+
+    private final class IdentificationColumn {
+        // sorted by value, positions[i] is the item with values[i]
+        private final int[] values;
+        private final int[] positions;
+
+        private IdentificationColumn(List<int[]> valuePositions) {
+            valuePositions.sort(Comparator.comparingInt(valuePosition -> valuePosition[0]));
+
+            values = new int[valuePositions.size()];
+            positions = new int[valuePositions.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = valuePositions.get(i)[0];
+                positions[i] = valuePositions.get(i)[1];
+            }
+        }
+
+        private BitSet range(int min, int max) {
+            BitSet result = new BitSet(items.length);
+            for (int i = firstAtLeast(min); i < values.length && values[i] <= max; i++) {
+                result.set(positions[i]);
+            }
+            return result;
+        }
+
+        private int firstAtLeast(int value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
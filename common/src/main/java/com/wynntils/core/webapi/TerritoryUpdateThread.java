@@ -5,7 +5,6 @@
 package com.wynntils.core.webapi;
 
 import com.wynntils.core.WynntilsMod;
-import com.wynntils.core.webapi.request.RequestHandler;
 
 public class TerritoryUpdateThread extends Thread {
     public TerritoryUpdateThread(String name) {
@@ -14,13 +13,10 @@ public class TerritoryUpdateThread extends Thread {
 
     @Override
     public void run() {
-        RequestHandler handler = new RequestHandler();
-
         try {
             Thread.sleep(30000);
             while (!isInterrupted()) {
-                WebManager.tryLoadTerritories(handler);
-                handler.dispatch();
+                WebManager.tryLoadTerritories();
 
                 // TODO: Add events
                 Thread.sleep(30000);
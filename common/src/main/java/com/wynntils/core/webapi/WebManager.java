@@ -5,6 +5,7 @@
 package com.wynntils.core.webapi;
 
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
@@ -16,18 +17,20 @@ import com.wynntils.core.webapi.account.WynntilsAccount;
 import com.wynntils.core.webapi.profiles.ItemGuessProfile;
 import com.wynntils.core.webapi.profiles.PlayerStatsProfile;
 import com.wynntils.core.webapi.profiles.TerritoryProfile;
-import com.wynntils.core.webapi.profiles.item.IdentificationProfile;
 import com.wynntils.core.webapi.profiles.item.ItemProfile;
 import com.wynntils.core.webapi.profiles.item.ItemType;
 import com.wynntils.core.webapi.profiles.item.MajorIdentification;
 import com.wynntils.core.webapi.request.RequestBuilder;
 import com.wynntils.core.webapi.request.RequestHandler;
+import com.wynntils.mc.event.WebLoadedEvent;
 import com.wynntils.mc.event.WebSetupEvent;
 import com.wynntils.mc.utils.ComponentUtils;
 import com.wynntils.mc.utils.McUtils;
+import com.wynntils.utils.MD5Verification;
 import com.wynntils.utils.Utils;
 import com.wynntils.wynn.event.QuestBookReloadedEvent;
 import com.wynntils.wynn.item.IdentificationOrderer;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -44,6 +47,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.ClickEvent;
 import net.minecraft.network.chat.MutableComponent;
@@ -53,7 +59,12 @@ import net.minecraft.network.chat.TextComponent;
 /** Provides and loads web content on demand */
 public final class WebManager extends CoreManager {
     public static final File API_CACHE_ROOT = WynntilsMod.getModStorageDir("apicache");
+    private static final File ITEM_LIST_SNAPSHOT = new File(API_CACHE_ROOT, "item_list.snapshot");
     private static final int REQUEST_TIMEOUT_MILLIS = 10000;
+    private static final ExecutorService STARTUP_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("wynntils-web-startup-pool-%d")
+            .setDaemon(true)
+            .build());
 
     private static boolean setup = false;
     private static final RequestHandler handler = new RequestHandler();
@@ -64,6 +75,7 @@ public final class WebManager extends CoreManager {
 
     private static HashMap<String, ItemProfile> items = new HashMap<>();
     private static Collection<ItemProfile> directItems = new ArrayList<>();
+    private static ItemQueryIndex itemQueryIndex = null;
     private static HashMap<String, ItemGuessProfile> itemGuesses = new HashMap<>();
     private static HashMap<String, String> translatedReferences = new HashMap<>();
     private static HashMap<String, String> internalIdentifications = new HashMap<>();
@@ -79,6 +91,8 @@ public final class WebManager extends CoreManager {
 
     private static WynntilsAccount account = null;
 
+    private static long startupStartTime = 0L;
+
     private static final String USER_AGENT = String.format(
             "Wynntils Artemis\\%s-%d (%s) %s",
             WynntilsMod.getVersion(),
@@ -86,19 +100,53 @@ public final class WebManager extends CoreManager {
             WynntilsMod.isDevelopmentEnvironment() ? "dev" : "client",
             WynntilsMod.getModLoader());
 
+    /**
+     * Starts loading all web content without blocking. The api urls are needed by everything else, so they are
+     * loaded first; the remaining phases run in parallel afterwards. Readiness is signalled through
+     * {@link WebSetupEvent} and {@link WebLoadedEvent}.
+     */
     public static void init() {
-        tryReloadApiUrls(false);
-        setupUserAccount();
-
-        WebManager.updateCurrentSplash();
+        startupStartTime = System.currentTimeMillis();
+
+        CompletableFuture<Void> apiUrlsLoaded = timeStartupPhase("api urls", tryReloadApiUrls());
+        apiUrlsLoaded.thenRun(WebManager::updateCurrentSplash);
+
+        CompletableFuture.allOf(
+                        apiUrlsLoaded.thenCompose(ignored -> runStartupPhase("item list", WebManager::tryLoadItemList)),
+                        apiUrlsLoaded.thenCompose(
+                                ignored -> runStartupPhase("item guesses", WebManager::tryLoadItemGuesses)),
+                        apiUrlsLoaded.thenCompose(ignored -> runStartupPhase("account", WebManager::setupUserAccount)))
+                .thenRun(() -> {
+                    WynntilsMod.info("Web startup finished in " + (System.currentTimeMillis() - startupStartTime)
+                            + " ms");
+                    WynntilsMod.postEvent(new WebLoadedEvent.StartupFinished());
+                });
 
-        loadCommonObjects();
         updateFriendThreadStatus(true);
     }
 
-    private static void loadCommonObjects() {
-        WebManager.tryLoadItemList();
-        WebManager.tryLoadItemGuesses();
+    /**
+     * Runs a phase of loading web content on the startup pool, and logs how long it took. Failures are logged, and
+     * do not prevent the phases depending on this one from running.
+     */
+    public static CompletableFuture<Void> runStartupPhase(String name, Runnable phase) {
+        return timeStartupPhase(name, CompletableFuture.runAsync(phase, STARTUP_EXECUTOR));
+    }
+
+    private static CompletableFuture<Void> timeStartupPhase(String name, CompletableFuture<Void> phase) {
+        long phaseStartTime = System.currentTimeMillis();
+
+        return phase.handle((result, throwable) -> {
+            long endTime = System.currentTimeMillis();
+            if (throwable != null) {
+                WynntilsMod.error("Web startup phase " + name + " failed.", throwable);
+            }
+
+            WynntilsMod.info(String.format(
+                    "Web startup phase %s took %d ms (done %d ms after start)",
+                    name, endTime - phaseStartTime, endTime - startupStartTime));
+            return null;
+        });
     }
 
     public static boolean isLoggedIn() {
@@ -115,6 +163,7 @@ public final class WebManager extends CoreManager {
         // tryLoadItemList
         items = null;
         directItems = null;
+        itemQueryIndex = null;
         translatedReferences = null;
         internalIdentifications = null;
         majorIds = null;
@@ -133,7 +182,9 @@ public final class WebManager extends CoreManager {
         account = new WynntilsAccount();
         boolean accountSetup = account.login();
 
-        if (!accountSetup) {
+        if (accountSetup) {
+            WynntilsMod.postEvent(new WebLoadedEvent.AccountLoaded());
+        } else {
             MutableComponent failed = new TextComponent(
                             "Welps! Trying to connect and set up the Wynntils Account with your data has failed. "
                                     + "Most notably, cloud config syncing will not work. To try this action again, run ")
@@ -148,15 +199,11 @@ public final class WebManager extends CoreManager {
                 return;
             }
 
-            McUtils.sendMessageToClient(failed);
+            McUtils.mc().execute(() -> McUtils.sendMessageToClient(failed));
         }
     }
 
     public static boolean tryLoadTerritories() {
-        return tryLoadTerritories(handler);
-    }
-
-    public static boolean tryLoadTerritories(RequestHandler handler) {
         if (apiUrls == null || !apiUrls.hasKey("Athena")) return false;
         String url = apiUrls.get("Athena") + "/cache/get/territoryList";
         handler.addAndDispatch(new RequestBuilder(url, "territory")
@@ -223,7 +270,7 @@ public final class WebManager extends CoreManager {
     private static final Map<String, PlayerStatsProfile> friends = new HashMap<>();
 
     // Loads current friend in friend queue
-    public static boolean tryLoadFriends(RequestHandler handler) {
+    public static boolean tryLoadFriends() {
         if (apiUrls == null || !apiUrls.hasKey("PlayerStatsv2")) return false;
 
         // add to online friends in dispatch and friend join
@@ -291,11 +338,14 @@ public final class WebManager extends CoreManager {
                             HashMap.class, new ItemGuessProfile.ItemGuessDeserializer());
                     Gson gson = gsonBuilder.create();
 
-                    itemGuesses = new HashMap<>();
-                    itemGuesses.putAll(gson.fromJson(json, type));
+                    HashMap<String, ItemGuessProfile> newItemGuesses = new HashMap<>();
+                    newItemGuesses.putAll(gson.fromJson(json, type));
+                    itemGuesses = newItemGuesses;
 
+                    WynntilsMod.postEvent(new WebLoadedEvent.ItemGuessesLoaded());
                     return true;
                 })
+                .useCacheFirst()
                 .useCacheAsBackup()
                 .build());
 
@@ -306,46 +356,50 @@ public final class WebManager extends CoreManager {
         if (apiUrls == null || !apiUrls.hasKey("Athena")) return;
         handler.addAndDispatch(new RequestBuilder(apiUrls.get("Athena") + "/cache/get/itemList", "item_list")
                 .cacheTo(new File(API_CACHE_ROOT, "item_list.json"))
-                .handleJsonObject(json -> {
-                    Type hashmapType = new TypeToken<HashMap<String, String>>() {}.getType();
-                    translatedReferences = gson.fromJson(json.getAsJsonObject("translatedReferences"), hashmapType);
-                    internalIdentifications =
-                            gson.fromJson(json.getAsJsonObject("internalIdentifications"), hashmapType);
+                .handle((response, data) -> {
+                    // Only parse and process the item list again if it changed since the snapshot was made
+                    String sourceHash = new MD5Verification(data).getMd5();
+                    ItemListParser.ItemList itemList = ItemListSnapshot.read(gson, ITEM_LIST_SNAPSHOT, sourceHash);
+                    if (itemList == null) {
+                        itemList = ItemListParser.parse(
+                                gson, new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8));
+                        if (itemList == null) return false;
+
+                        ItemListSnapshot.write(gson, ITEM_LIST_SNAPSHOT, sourceHash, itemList);
+                    }
 
-                    Type majorIdsType = new TypeToken<HashMap<String, MajorIdentification>>() {}.getType();
-                    majorIds = gson.fromJson(json.getAsJsonObject("majorIdentifications"), majorIdsType);
-                    Type materialTypesType = new TypeToken<HashMap<ItemType, String[]>>() {}.getType();
-                    materialTypes = gson.fromJson(json.getAsJsonObject("materialTypes"), materialTypesType);
+                    translatedReferences = itemList.translatedReferences();
+                    internalIdentifications = itemList.internalIdentifications();
+                    majorIds = itemList.majorIds();
+                    materialTypes = itemList.materialTypes();
 
                     // FIXME: We should not be doing Singleton housekeeping for IdentificationOrderer!
-                    IdentificationOrderer.INSTANCE =
-                            gson.fromJson(json.getAsJsonObject("identificationOrder"), IdentificationOrderer.class);
+                    IdentificationOrderer.INSTANCE = itemList.identificationOrderer();
 
-                    ItemProfile[] gItems = gson.fromJson(json.getAsJsonArray("items"), ItemProfile[].class);
-
-                    HashMap<String, ItemProfile> citems = new HashMap<>();
-                    for (ItemProfile prof : gItems) {
-                        prof.getStatuses().values().forEach(IdentificationProfile::calculateMinMax);
-                        prof.addMajorIds(majorIds);
-                        citems.put(prof.getDisplayName(), prof);
-                    }
-
-                    citems.values().forEach(ItemProfile::registerIdTypes);
-
-                    directItems = citems.values();
-                    items = citems;
+                    directItems = itemList.items().values();
+                    items = itemList.items();
+                    itemQueryIndex = new ItemQueryIndex(directItems);
 
+                    WynntilsMod.postEvent(new WebLoadedEvent.ItemListLoaded());
                     return true;
                 })
+                .useCacheFirst()
                 .useCacheAsBackup()
                 .build());
 
         // Check for success
     }
 
-    private static void tryReloadApiUrls(boolean async) {
+    /**
+     * Loads the api urls, from the cache first if possible. The returned future completes as soon as the urls are
+     * available, or once it is clear they can not be loaded.
+     */
+    private static CompletableFuture<Void> tryReloadApiUrls() {
+        CompletableFuture<Void> loaded = new CompletableFuture<>();
+
         handler.addRequest(new RequestBuilder("https://api.wynntils.com/webapi", "webapi")
                 .cacheTo(new File(API_CACHE_ROOT, "webapi.txt"))
+                .useCacheFirst()
                 .useCacheAsBackup()
                 .handleWebReader(reader -> {
                     apiUrls = reader;
@@ -354,11 +408,16 @@ public final class WebManager extends CoreManager {
                     }
 
                     WynntilsMod.postEvent(new WebSetupEvent());
+                    loaded.complete(null);
                     return true;
                 })
-                .build());
+                .build())
+                // The request is revalidated in the background after using the cache
+                .whenComplete((result, throwable) -> loaded.complete(null));
 
-        handler.dispatch(async);
+        handler.dispatchAsync();
+
+        return loaded;
     }
 
     /**
@@ -425,6 +484,11 @@ public final class WebManager extends CoreManager {
         return items;
     }
 
+    /** Returns the index to query the loaded items with, or null if the item list isn't loaded */
+    public static ItemQueryIndex getItemQueryIndex() {
+        return itemQueryIndex;
+    }
+
     public static HashMap<ItemType, String[]> getMaterialTypes() {
         return materialTypes;
     }
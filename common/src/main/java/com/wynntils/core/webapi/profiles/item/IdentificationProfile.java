@@ -22,6 +22,8 @@ public class IdentificationProfile {
     private final boolean isFixed;
     private transient int min;
     private transient int max;
+    private transient volatile IdentificationRollTable rollTable;
+    private transient volatile IdentificationRollTable invertedRollTable;
 
     public IdentificationProfile(IdentificationModifier type, int baseValue, boolean isFixed) {
         this.type = type;
@@ -30,7 +32,18 @@ public class IdentificationProfile {
         calculateMinMax();
     }
 
+    public IdentificationProfile(IdentificationModifier type, int baseValue, boolean isFixed, int min, int max) {
+        this.type = type;
+        this.baseValue = baseValue;
+        this.isFixed = isFixed;
+        this.min = min;
+        this.max = max;
+    }
+
     public void calculateMinMax() {
+        rollTable = null;
+        invertedRollTable = null;
+
         if (isFixed || (-1 <= baseValue && baseValue <= 1)) {
             min = baseValue;
             max = baseValue;
@@ -70,6 +83,26 @@ public class IdentificationProfile {
         return isFixed || min == max;
     }
 
+    /**
+     * Returns the precomputed percentage, reidentification chances and colour of every value this identification can
+     * roll, built the first time they are needed
+     *
+     * @param isInverted Whether lower values are better, see {@link #getChances(int, boolean, int)}
+     */
+    public IdentificationRollTable getRollTable(boolean isInverted) {
+        IdentificationRollTable table = isInverted ? invertedRollTable : rollTable;
+        if (table != null) return table;
+
+        // racing threads build equal tables, whichever is stored last wins
+        table = new IdentificationRollTable(this, isInverted);
+        if (isInverted) {
+            invertedRollTable = table;
+        } else {
+            rollTable = table;
+        }
+        return table;
+    }
+
     public static IdentificationModifier getTypeFromName(String name) {
         return typeMap.get(name);
     }
@@ -0,0 +1,133 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.webapi.profiles.item;
+
+import com.wynntils.utils.MathUtils;
+import com.wynntils.wynn.utils.WynnItemUtils;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
+import net.minecraft.network.chat.TextColor;
+import net.minecraft.network.chat.TextComponent;
+
+/**
+ * The percentage, percentage colours and reidentification chances of every value between the min and max of an
+ * {@link IdentificationProfile}, so evaluating an identification of a gear item is an array lookup.
+ *
+ * Only primitives are kept. The chances of a star count are only computed once they are first asked for, as they are
+ * only shown in the reroll tooltip. Values outside the range, and star counts the game doesn't show, are evaluated by
+ * the profile itself.
+ */
+public final class IdentificationRollTable {
+    private static final int STAR_COUNTS = 4;
+
+    private final IdentificationProfile profile;
+    private final boolean isInverted;
+    private final int min;
+
+    private final float[] percentages;
+    private final int[] lerpColors;
+    private final int[] flatColors;
+    // [star count], negative identifications ignore stars and only have one row
+    private final ChanceRow[] chanceRows;
+
+    IdentificationRollTable(IdentificationProfile profile, boolean isInverted) {
+        this.profile = profile;
+        this.isInverted = isInverted;
+        this.min = profile.getMin();
+
+        int max = profile.getMax();
+        int size = max - min + 1;
+
+        percentages = new float[size];
+        lerpColors = new int[size];
+        flatColors = new int[size];
+        chanceRows = new ChanceRow[profile.getBaseValue() > 0 ? STAR_COUNTS : 1];
+
+        for (int i = 0; i < size; i++) {
+            float percentage = isInverted
+                    ? MathUtils.inverseLerp(max, min, min + i) * 100
+                    : MathUtils.inverseLerp(min, max, min + i) * 100;
+            percentages[i] = percentage;
+            lerpColors[i] = WynnItemUtils.getPercentageRgb(percentage, true);
+            flatColors[i] = WynnItemUtils.getPercentageRgb(percentage, false);
+        }
+    }
+
+    /** @return The percentage of the roll, 100 being the best roll */
+    public float getPercentage(int value) {
+        int index = value - min;
+        if (index < 0 || index >= percentages.length) {
+            int max = profile.getMax();
+            return isInverted
+                    ? MathUtils.inverseLerp(max, min, value) * 100
+                    : MathUtils.inverseLerp(min, max, value) * 100;
+        }
+
+        return percentages[index];
+    }
+
+    /** @return The styled percentage component of the roll, as {@link WynnItemUtils#getPercentageTextComponent} */
+    public MutableComponent getPercentageComponent(int value, boolean colorLerp) {
+        int index = value - min;
+        float percentage = getPercentage(value);
+        int color;
+        if (index < 0 || index >= percentages.length) {
+            color = WynnItemUtils.getPercentageRgb(percentage, colorLerp);
+        } else {
+            color = colorLerp ? lerpColors[index] : flatColors[index];
+        }
+
+        return new TextComponent(WynnItemUtils.getPercentageText(percentage))
+                .withStyle(Style.EMPTY.withColor(TextColor.fromRgb(color)).withItalic(false));
+    }
+
+    /** @return The chance to decrease on reidentification, see {@link IdentificationProfile#getChances} */
+    public double getDecrease(int value, int starCount) {
+        int index = value - min;
+        int row = rowOf(starCount);
+        if (index < 0 || index >= percentages.length || row < 0) {
+            return profile.getChances(value, isInverted, starCount).decrease();
+        }
+
+        return getChanceRow(row).decreases()[index];
+    }
+
+    /** @return The chance to increase on reidentification, see {@link IdentificationProfile#getChances} */
+    public double getIncrease(int value, int starCount) {
+        int index = value - min;
+        int row = rowOf(starCount);
+        if (index < 0 || index >= percentages.length || row < 0) {
+            return profile.getChances(value, isInverted, starCount).increase();
+        }
+
+        return getChanceRow(row).increases()[index];
+    }
+
+    private int rowOf(int starCount) {
+        if (chanceRows.length == 1) return 0;
+
+        return starCount >= 0 && starCount < chanceRows.length ? starCount : -1;
+    }
+
+    private ChanceRow getChanceRow(int row) {
+        ChanceRow chances = chanceRows[row];
+        if (chances != null) return chances;
+
+        float[] decreases = new float[percentages.length];
+        float[] increases = new float[percentages.length];
+        for (int i = 0; i < percentages.length; i++) {
+            IdentificationProfile.ReidentificationChances valueChances = profile.getChances(min + i, isInverted, row);
+            decreases[i] = (float) valueChances.decrease();
+            increases[i] = (float) valueChances.increase();
+        }
+
+        // racing threads compute equal rows, and the record's final fields publish the arrays safely
+        chances = new ChanceRow(decreases, increases);
+        chanceRows[row] = chances;
+        return chances;
+    }
+
+    private record ChanceRow(float[] decreases, float[] increases) {}
+}
@@ -46,18 +46,20 @@ public class ItemProfile {
             String displayName,
             ItemTier tier,
             boolean identified,
+            int powderAmount,
             ItemAttackSpeed attackSpeed,
             ItemInfoContainer itemInfo,
             Map<String, String> requirements,
             Map<String, String> damageTypes,
             Map<String, Integer> defenseTypes,
             Map<String, IdentificationProfile> statuses,
-            ArrayList<String> majorIds,
+            List<String> majorIds,
             String restriction,
             String lore) {
         this.displayName = displayName;
         this.tier = tier;
         this.identified = identified;
+        this.powderAmount = powderAmount;
         this.attackSpeed = attackSpeed;
         this.itemInfo = itemInfo;
         this.requirements = requirements;
@@ -117,6 +119,11 @@ public class ItemProfile {
         return parsedRequirements;
     }
 
+    /** The requirements as they are in the item list, see {@link #getRequirements()} for the parsed ones */
+    public Map<String, String> getRawRequirements() {
+        return requirements;
+    }
+
     public Map<String, String> getDamageTypes() {
         return damageTypes;
     }
@@ -186,6 +193,11 @@ public class ItemProfile {
         return majorIdentifications;
     }
 
+    /** The keys of the major ids, as used in {@link #addMajorIds(Map)} */
+    public List<String> getMajorIdNames() {
+        return majorIds;
+    }
+
     public String getRestriction() {
         return restriction;
     }
@@ -0,0 +1,99 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.webapi.request;
+
+import com.wynntils.core.WynntilsMod;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Properties;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * The validators of a cached response, stored next to its cache file. They are sent with the next request for the
+ * same cache file, so the server can answer with 304 Not Modified instead of the full response.
+ */
+final class CacheMetadata {
+    private static final String METADATA_EXTENSION = ".meta";
+    private static final String ETAG = "ETag";
+    private static final String LAST_MODIFIED = "Last-Modified";
+
+    private final String etag;
+    private final String lastModified;
+
+    private CacheMetadata(String etag, String lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /** Adds the conditional request headers for the cache file, if it has been cached with validators */
+    static void addConditionalHeaders(File cacheFile, HttpRequest.Builder request) {
+        if (cacheFile == null || !cacheFile.exists()) return;
+
+        CacheMetadata metadata = read(cacheFile);
+        if (metadata == null) return;
+
+        if (metadata.etag != null) {
+            request.header("If-None-Match", metadata.etag);
+        }
+        if (metadata.lastModified != null) {
+            request.header("If-Modified-Since", metadata.lastModified);
+        }
+    }
+
+    /** Stores the validators of the response, or removes the old ones if the response has none */
+    static void write(File cacheFile, HttpResponse<?> response) {
+        String etag = response.headers().firstValue(ETAG).orElse(null);
+        String lastModified = response.headers().firstValue(LAST_MODIFIED).orElse(null);
+
+        if (etag == null && lastModified == null) {
+            delete(cacheFile);
+            return;
+        }
+
+        Properties properties = new Properties();
+        if (etag != null) {
+            properties.setProperty(ETAG, etag);
+        }
+        if (lastModified != null) {
+            properties.setProperty(LAST_MODIFIED, lastModified);
+        }
+
+        try (OutputStream out = new FileOutputStream(getMetadataFile(cacheFile))) {
+            properties.store(out, null);
+        } catch (IOException e) {
+            WynntilsMod.warn("Error occurred whilst writing cache metadata for " + cacheFile.getPath(), e);
+            delete(cacheFile);
+        }
+    }
+
+    static void delete(File cacheFile) {
+        FileUtils.deleteQuietly(getMetadataFile(cacheFile));
+    }
+
+    private static CacheMetadata read(File cacheFile) {
+        File metadataFile = getMetadataFile(cacheFile);
+        if (!metadataFile.exists()) return null;
+
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(metadataFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            WynntilsMod.warn("Error occurred whilst reading cache metadata for " + cacheFile.getPath(), e);
+            return null;
+        }
+
+        return new CacheMetadata(properties.getProperty(ETAG), properties.getProperty(LAST_MODIFIED));
+    }
+
+    private static File getMetadataFile(File cacheFile) {
+        return new File(cacheFile.getPath() + METADATA_EXTENSION);
+    }
+}
@@ -6,38 +6,53 @@ package com.wynntils.core.webapi.request;
 
 import com.wynntils.utils.ThrowingBiPredicate;
 import com.wynntils.utils.ThrowingConsumer;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URLConnection;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.util.Map;
 import java.util.function.Predicate;
 
 public class PostRequest extends Request {
-    private final ThrowingConsumer<HttpURLConnection, IOException> writer;
+    private final ThrowingConsumer<OutputStream, IOException> writer;
 
     PostRequest(
             String url,
             String id,
             int parallelGroup,
-            ThrowingBiPredicate<URLConnection, byte[], IOException> handler,
+            ThrowingBiPredicate<HttpResponse<byte[]>, byte[], IOException> handler,
             boolean useCacheAsBackup,
+            boolean useCacheFirst,
             RequestErrorHandler onError,
             Map<String, String> headers,
             File cacheFile,
             Predicate<byte[]> cacheValidator,
             int timeout,
-            ThrowingConsumer<HttpURLConnection, IOException> writer) {
-        super(url, id, parallelGroup, handler, useCacheAsBackup, onError, headers, cacheFile, cacheValidator, timeout);
+            ThrowingConsumer<OutputStream, IOException> writer) {
+        super(
+                url,
+                id,
+                parallelGroup,
+                handler,
+                useCacheAsBackup,
+                useCacheFirst,
+                onError,
+                headers,
+                cacheFile,
+                cacheValidator,
+                timeout);
         this.writer = writer;
     }
 
     @Override
-    public HttpURLConnection establishConnection() throws IOException {
-        HttpURLConnection st = super.establishConnection();
-        st.setDoOutput(true);
-        st.setRequestMethod("POST");
-        writer.accept(st);
-        return st;
+    public HttpRequest buildHttpRequest() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writer.accept(body);
+
+        return newHttpRequestBuilder()
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
     }
 }
@@ -9,10 +9,13 @@ import com.wynntils.core.webapi.WebManager;
 import com.wynntils.utils.ThrowingBiPredicate;
 import java.io.File;
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 
 /**
@@ -23,8 +26,9 @@ public class Request {
     protected final String url;
     protected final String id;
     protected final int parallelGroup;
-    protected final ThrowingBiPredicate<URLConnection, byte[], IOException> handler;
+    protected final ThrowingBiPredicate<HttpResponse<byte[]>, byte[], IOException> handler;
     protected final boolean useCacheAsBackup;
+    protected final boolean useCacheFirst;
     private final RequestErrorHandler onError;
     private final Map<String, String> headers;
     private final int timeout;
@@ -33,13 +37,16 @@ public class Request {
     final Predicate<byte[]> cacheValidator;
 
     LoadingPhase currentlyHandling = LoadingPhase.UNLOADED;
+    // completes once this request was handled, whichever dispatch sent it
+    final CompletableFuture<Void> handled = new CompletableFuture<>();
 
     Request(
             String url,
             String id,
             int parallelGroup,
-            ThrowingBiPredicate<URLConnection, byte[], IOException> handler,
+            ThrowingBiPredicate<HttpResponse<byte[]>, byte[], IOException> handler,
             boolean useCacheAsBackup,
+            boolean useCacheFirst,
             RequestErrorHandler onError,
             Map<String, String> headers,
             File cacheFile,
@@ -50,6 +57,7 @@ public class Request {
         this.parallelGroup = parallelGroup;
         this.handler = handler;
         this.useCacheAsBackup = useCacheAsBackup;
+        this.useCacheFirst = useCacheFirst;
         this.onError = onError;
         this.headers = headers;
         this.cacheFile = cacheFile;
@@ -58,17 +66,39 @@ public class Request {
     }
 
     public void onError() {
+        if (onError == null) return;
+
         onError.invoke();
     }
 
-    public HttpURLConnection establishConnection() throws IOException {
-        HttpURLConnection st = (HttpURLConnection) new URL(url).openConnection();
-        st.setRequestProperty("User-Agent", WebManager.getUserAgent());
-        if (!headers.isEmpty()) headers.forEach(st::addRequestProperty);
+    public HttpRequest buildHttpRequest() throws IOException {
+        return newHttpRequestBuilder().GET().build();
+    }
+
+    protected HttpRequest.Builder newHttpRequestBuilder() throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder();
+        try {
+            builder.uri(new URI(url));
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid url " + url, e);
+        }
+
+        builder.header("User-Agent", WebManager.getUserAgent());
+        headers.forEach(builder::header);
+        CacheMetadata.addConditionalHeaders(cacheFile, builder);
+
+        builder.timeout(Duration.ofMillis(timeout));
+        return builder;
+    }
 
-        st.setConnectTimeout(timeout);
-        st.setReadTimeout(timeout);
-        return st;
+    /** Requests to the same host share a concurrency limit */
+    public String getHost() {
+        try {
+            String host = new URI(url).getHost();
+            return host == null ? "" : host;
+        } catch (URISyntaxException e) {
+            return "";
+        }
     }
 
     @FunctionalInterface
@@ -14,7 +14,7 @@ import com.wynntils.utils.MD5Verification;
 import com.wynntils.utils.ThrowingBiPredicate;
 import java.io.File;
 import java.io.IOException;
-import java.net.URLConnection;
+import java.net.http.HttpResponse;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
@@ -27,12 +27,13 @@ public class RequestBuilder {
     protected final String url;
     protected final String id;
     protected int parallelGroup = 0;
-    protected ThrowingBiPredicate<URLConnection, byte[], IOException> handler;
+    protected ThrowingBiPredicate<HttpResponse<byte[]>, byte[], IOException> handler;
     protected Request.RequestErrorHandler onError;
     protected final Map<String, String> headers = new HashMap<>();
     protected File cacheFile;
     protected Predicate<byte[]> cacheValidator = null;
     protected boolean useCacheAsBackup;
+    protected boolean useCacheFirst;
     protected int timeout = 16000;
 
     public RequestBuilder(String url, String id) {
@@ -61,11 +62,11 @@ public class RequestBuilder {
     }
 
     /**
-     * Callback called with the raw bytes from request and the connection itself. Return value is
-     * interpreted as in {{@link #handle(Predicate) handle}}. The connection will be `null` if
+     * Callback called with the raw bytes from request and the response itself. Return value is
+     * interpreted as in {{@link #handle(Predicate) handle}}. The response will be `null` if
      * loading from cache
      */
-    public RequestBuilder handle(ThrowingBiPredicate<URLConnection, byte[], IOException> handler) {
+    public RequestBuilder handle(ThrowingBiPredicate<HttpResponse<byte[]>, byte[], IOException> handler) {
         this.handler = handler;
         return this;
     }
@@ -79,7 +80,7 @@ public class RequestBuilder {
     }
 
     public RequestBuilder handleString(
-            ThrowingBiPredicate<URLConnection, String, IOException> handler, Charset charset) {
+            ThrowingBiPredicate<HttpResponse<byte[]>, String, IOException> handler, Charset charset) {
         return handle((conn, data) -> handler.test(conn, new String(data, charset)));
     }
 
@@ -88,7 +89,7 @@ public class RequestBuilder {
         return handleString(handler, StandardCharsets.UTF_8);
     }
 
-    public RequestBuilder handleString(ThrowingBiPredicate<URLConnection, String, IOException> handler) {
+    public RequestBuilder handleString(ThrowingBiPredicate<HttpResponse<byte[]>, String, IOException> handler) {
         return handleString(handler, StandardCharsets.UTF_8);
     }
 
@@ -97,7 +98,7 @@ public class RequestBuilder {
         return handleString(s -> handler.test(JsonParser.parseString(s)));
     }
 
-    public RequestBuilder handleJson(ThrowingBiPredicate<URLConnection, JsonElement, IOException> handler) {
+    public RequestBuilder handleJson(ThrowingBiPredicate<HttpResponse<byte[]>, JsonElement, IOException> handler) {
         return handleString((conn, s) -> handler.test(conn, JsonParser.parseString(s)));
     }
 
@@ -109,7 +110,7 @@ public class RequestBuilder {
         return handleJson(j -> j.isJsonObject() && handler.test(j.getAsJsonObject()));
     }
 
-    public RequestBuilder handleJsonObject(ThrowingBiPredicate<URLConnection, JsonObject, IOException> handler) {
+    public RequestBuilder handleJsonObject(ThrowingBiPredicate<HttpResponse<byte[]>, JsonObject, IOException> handler) {
         return handleJson((conn, j) -> j.isJsonObject() && handler.test(conn, j.getAsJsonObject()));
     }
 
@@ -121,7 +122,7 @@ public class RequestBuilder {
         return handleJson(j -> j.isJsonArray() && handler.test(j.getAsJsonArray()));
     }
 
-    public RequestBuilder handleJsonArray(ThrowingBiPredicate<URLConnection, JsonArray, IOException> handler) {
+    public RequestBuilder handleJsonArray(ThrowingBiPredicate<HttpResponse<byte[]>, JsonArray, IOException> handler) {
         return handleJson((conn, j) -> j.isJsonArray() && handler.test(conn, j.getAsJsonArray()));
     }
 
@@ -140,6 +141,9 @@ public class RequestBuilder {
     /**
      * Sets the cache file. Good data will be written here, and if there is no good data, it will be
      * read from here.
+     *
+     * <p>The ETag and Last-Modified headers of the response are stored next to it, so that the data is
+     * only downloaded again when it changed.
      */
     public RequestBuilder cacheTo(File f) {
         this.cacheFile = f;
@@ -177,6 +181,17 @@ public class RequestBuilder {
         return this;
     }
 
+    /**
+     * Stale-while-revalidate: handles the cache file, if present, instead of waiting for the web request. The web
+     * request is then made in the background, and only handled again if the data differs from the cache.
+     *
+     * <p>Use this for data that is needed early but rarely changes.
+     */
+    public RequestBuilder useCacheFirst() {
+        this.useCacheFirst = true;
+        return this;
+    }
+
     /** A MD5 hash cache validator. */
     public RequestBuilder cacheMD5Validator(String expectedHash) {
         if (!MD5Verification.isMd5Digest(expectedHash)) return this;
@@ -226,6 +241,8 @@ public class RequestBuilder {
     public Request build() {
         if (cacheValidator != null && cacheFile == null)
             throw new IllegalStateException("Invalid cache file and validator pairing");
+        if (useCacheFirst && cacheFile == null)
+            throw new IllegalStateException("Invalid cache file and cache first pairing");
 
         return new Request(
                 url,
@@ -233,6 +250,7 @@ public class RequestBuilder {
                 parallelGroup,
                 handler,
                 useCacheAsBackup,
+                useCacheFirst,
                 onError,
                 headers,
                 cacheFile,
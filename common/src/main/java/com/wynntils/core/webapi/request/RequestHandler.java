@@ -10,39 +10,76 @@ import com.wynntils.core.webapi.LoadingPhase;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.HttpURLConnection;
-import java.net.SocketTimeoutException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.Callable;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 
-/** Handles and dispatches {@link Request} */
+/**
+ * Handles and dispatches {@link Request}
+ *
+ * <p>All handlers share one {@link HttpClient} and one pool for handling responses, so creating a handler is cheap.
+ */
 public class RequestHandler {
     /** If set to true, will not make HTTP requests. */
     private static final boolean CACHE_ONLY = false;
 
-    private final ExecutorService pool = Executors.newFixedThreadPool(
+    private static final int MAX_REQUESTS_PER_HOST = 4;
+
+    private static final ExecutorService HANDLER_POOL = Executors.newFixedThreadPool(
             4,
             new ThreadFactoryBuilder()
                     .setNameFormat("wynntils-web-request-pool-%d")
+                    .setDaemon(true)
                     .build());
+    private static final ExecutorService CLIENT_POOL = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("wynntils-web-client-%d")
+            .setDaemon(true)
+            .build());
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .executor(CLIENT_POOL)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private static final Map<String, HostLimiter> HOST_LIMITERS = new ConcurrentHashMap<>();
+    // Requests with the same id are only handled once at a time, across all handlers
+    private static final Map<String, CompletableFuture<Void>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(RequestHandler::shutdown, "wynntils-web-request-shutdown"));
+    }
+
     private final List<Request> requests = new ArrayList<>();
     private int maxParallelGroup = 0;
-    private int dispatchId = 0;
 
-    /** Enqueue a new {@link Request Request} */
-    public void addRequest(Request req) {
+    /**
+     * Enqueue a new {@link Request Request}. If a request with the same id is already queued, this one is dropped in
+     * favour of it.
+     *
+     * @return a future that completes once this request, or the queued one it was dropped for, has been handled
+     */
+    public CompletableFuture<Void> addRequest(Request req) {
         synchronized (this) {
             for (Request request : requests) {
                 if (req.id.equals(request.id)) {
-                    return;
+                    // only the queued request is made, the caller is done once that one is
+                    WynntilsMod.warn("Request " + req.id + " is already queued, waiting for the queued one instead");
+                    return request.handled;
                 }
             }
 
@@ -52,40 +89,22 @@ public class RequestHandler {
                 maxParallelGroup = req.parallelGroup;
             }
         }
+
+        return req.handled;
     }
 
     /** Send all enqueued requests and wait until complete */
     public void dispatch() {
-        dispatch(false);
+        dispatchAsync().join();
     }
 
     /**
-     * Send all enqueued requests inside of a new thread and return that thread
+     * Send all enqueued requests without waiting for them
+     *
+     * @return a future that completes once all requests have been handled
      */
-    public void dispatchAsync() {
-        dispatch(true);
-    }
-
-    /** Enqueue a new {@link Request} and dispatches it */
-    public void addAndDispatch(Request req, boolean async) {
-        addRequest(req);
-        dispatch(async);
-    }
-
-    /** Enqueue a new {@link Request} and dispatches it */
-    public void addAndDispatch(Request req) {
-        addAndDispatch(req, false);
-    }
-
-    /** Enqueue a new {@link Request} and dispatches it */
-    public void addAndDispatchAsync(Request req) {
-        addAndDispatch(req, true);
-    }
-
-    public Thread dispatch(boolean async) {
+    public CompletableFuture<Void> dispatchAsync() {
         List<List<Request>> groupedRequests;
-        boolean anyRequests = false;
-        int thisDispatch;
 
         synchronized (this) {
             groupedRequests = Stream.generate(ArrayList<Request>::new)
@@ -95,185 +114,325 @@ public class RequestHandler {
             for (Request request : requests) {
                 if (request.currentlyHandling != LoadingPhase.UNLOADED) continue;
 
-                anyRequests = true;
                 request.currentlyHandling = LoadingPhase.TO_LOAD;
                 groupedRequests.get(request.parallelGroup).add(request);
             }
 
             maxParallelGroup = 0;
-            thisDispatch = ++dispatchId;
         }
 
-        if (anyRequests) {
-            if (!async) {
-                handleDispatch(thisDispatch, groupedRequests, 0);
-                return null;
-            } else {
-                Thread t = new Thread(
-                        () -> handleDispatch(thisDispatch, groupedRequests, 0), "wynntils-webrequesthandler");
-                t.start();
-                return t;
-            }
+        // Greater parallel groups are only requested once the smaller ones are done
+        CompletableFuture<Void> dispatch = CompletableFuture.completedFuture(null);
+        for (List<Request> group : groupedRequests) {
+            if (group.isEmpty()) continue;
+
+            dispatch = dispatch.thenCompose(ignored -> CompletableFuture.allOf(
+                    group.stream().map(this::submit).toArray(CompletableFuture[]::new)));
         }
 
-        return null;
+        return dispatch;
     }
 
-    private void handleDispatch(int dispatchId, List<List<Request>> groupedRequests, int currentGroupIndex) {
-        List<Request> currentGroup = groupedRequests.get(currentGroupIndex);
-        if (currentGroup.isEmpty()) {
-            nextDispatch(dispatchId, groupedRequests, currentGroupIndex);
-            return;
+    /**
+     * Enqueue a new {@link Request} and dispatches it, waiting until it has been handled. Other callers sharing this
+     * handler may dispatch it first, so this waits for the request itself rather than for this dispatch.
+     */
+    public void addAndDispatch(Request req) {
+        addAndDispatchAsync(req).join();
+    }
+
+    /**
+     * Enqueue a new {@link Request} and dispatches it without waiting for it
+     *
+     * @return a future that completes once this request has been handled
+     */
+    public CompletableFuture<Void> addAndDispatchAsync(Request req) {
+        CompletableFuture<Void> handled = addRequest(req);
+        dispatchAsync();
+        return handled;
+    }
+
+    /** Stops all running requests. No requests can be made afterwards. */
+    public static void shutdown() {
+        HANDLER_POOL.shutdownNow();
+        CLIENT_POOL.shutdownNow();
+    }
+
+    private CompletableFuture<Void> submit(Request req) {
+        CompletableFuture<Void> handled = new CompletableFuture<>();
+        CompletableFuture<Void> inFlight = IN_FLIGHT.putIfAbsent(req.id, handled);
+
+        // If the same request is already being made, this one is satisfied once that one is done
+        if (inFlight == null) {
+            inFlight = handled;
+            CompletableFuture.supplyAsync(() -> handleRequest(req), HANDLER_POOL)
+                    .thenCompose(Function.identity())
+                    .whenComplete((result, throwable) -> {
+                        if (throwable != null) {
+                            WynntilsMod.error("Exception when handling request " + req.id, throwable);
+                        }
+
+                        IN_FLIGHT.remove(req.id, handled);
+                        handled.complete(null);
+                    });
         }
 
-        List<Callable<Void>> tasks = new ArrayList<>(currentGroup.size());
-        for (Request req : currentGroup) {
-            tasks.add(() -> {
-                if (req.cacheValidator != null) {
+        return inFlight.whenComplete((result, throwable) -> {
+            req.currentlyHandling = LoadingPhase.LOADED;
+            synchronized (this) {
+                requests.remove(req);
+            }
+            req.handled.complete(null);
+        });
+    }
+
+    private static CompletableFuture<Void> handleRequest(Request req) {
+        if (req.cacheValidator != null) {
+            try {
+                byte[] cachedData = FileUtils.readFileToByteArray(req.cacheFile);
+                if (req.cacheValidator.test(cachedData)) {
                     try {
-                        byte[] cachedData = FileUtils.readFileToByteArray(req.cacheFile);
-                        if (req.cacheValidator.test(cachedData)) {
-                            try {
-                                if (req.handler.test(null, cachedData)) {
-                                    return null;
-                                }
-                            } catch (Exception e) {
-                                WynntilsMod.error("Exception when trying to test handler.", e);
-                            }
-
-                            WynntilsMod.warn(req.id + ": Error using cached data that passed" + " validator!");
-                            FileUtils.deleteQuietly(req.cacheFile);
-                        } else {
-                            WynntilsMod.warn("Cache for " + req.id + " at " + req.cacheFile.getPath()
-                                    + " could not be validated");
+                        if (req.handler.test(null, cachedData)) {
+                            return CompletableFuture.completedFuture(null);
                         }
-                    } catch (FileNotFoundException ignore) {
                     } catch (Exception e) {
-                        WynntilsMod.warn(
-                                "Error occurred whilst trying to validate cache for " + req.id + " at "
-                                        + req.cacheFile.getPath(),
-                                e);
+                        WynntilsMod.error("Exception when trying to test handler.", e);
                     }
-                }
 
-                boolean result = CACHE_ONLY || handleHttpConnection(req);
-
-                if (!result) {
-                    if (req.useCacheAsBackup) {
-                        try {
-                            if (!req.handler.test(null, FileUtils.readFileToByteArray(req.cacheFile))) {
-                                WynntilsMod.warn("Error occurred whilst trying to use cache for " + req.id + " at "
-                                        + req.cacheFile.getPath() + ": Cache file is invalid");
-                                FileUtils.deleteQuietly(req.cacheFile);
-                                req.onError();
-                            }
-                        } catch (FileNotFoundException ignore) {
-                            WynntilsMod.warn("Could not find file while trying to use cache as backup");
-                            req.onError();
-                        } catch (Exception e) {
-                            WynntilsMod.warn(
-                                    "Error occurred whilst trying to use cache for " + req.id + " at "
-                                            + req.cacheFile.getPath(),
-                                    e);
-                            FileUtils.deleteQuietly(req.cacheFile);
-                            req.onError();
-                        }
-                    } else {
-                        WynntilsMod.warn("Request was not satisfied before and using cache as backup is not set");
-                        req.onError();
-                    }
+                    WynntilsMod.warn(req.id + ": Error using cached data that passed" + " validator!");
+                    FileUtils.deleteQuietly(req.cacheFile);
+                } else {
+                    WynntilsMod.warn(
+                            "Cache for " + req.id + " at " + req.cacheFile.getPath() + " could not be validated");
+                    // Don't let the server confirm the cache we just rejected
+                    CacheMetadata.delete(req.cacheFile);
                 }
-
-                req.currentlyHandling = LoadingPhase.LOADED;
-                return null;
-            });
+            } catch (FileNotFoundException ignore) {
+            } catch (Exception e) {
+                WynntilsMod.warn(
+                        "Error occurred whilst trying to validate cache for " + req.id + " at "
+                                + req.cacheFile.getPath(),
+                        e);
+            }
         }
 
-        try {
-            pool.invokeAll(tasks);
-        } catch (InterruptedException e) {
-            Set<String> completedIds = new HashSet<>();
-            Set<String> interruptedIds = new HashSet<>();
-            for (List<Request> requests : groupedRequests)
-                for (Request request : requests) {
-                    (request.currentlyHandling == LoadingPhase.LOADED ? completedIds : interruptedIds).add(request.id);
-                }
-            synchronized (this) {
-                requests.removeIf(req -> {
-                    if (completedIds.contains(req.id)) {
-                        return true;
-                    }
-                    if (interruptedIds.contains(req.id)) {
-                        req.currentlyHandling = LoadingPhase.LOADED;
-                    }
+        boolean cacheHandled = false;
+        if (req.useCacheFirst && req.cacheFile.exists()) {
+            try {
+                cacheHandled = req.handler.test(null, FileUtils.readFileToByteArray(req.cacheFile));
+            } catch (Exception e) {
+                WynntilsMod.warn(
+                        "Error occurred whilst trying to use cache for " + req.id + " at " + req.cacheFile.getPath(),
+                        e);
+            }
 
-                    return false;
-                });
+            if (!cacheHandled) {
+                FileUtils.deleteQuietly(req.cacheFile);
             }
+        }
 
-            return;
+        if (cacheHandled) {
+            // Don't wait for the cached data to be revalidated
+            if (!CACHE_ONLY) {
+                fetch(req, true);
+            }
+
+            return CompletableFuture.completedFuture(null);
         }
 
-        nextDispatch(dispatchId, groupedRequests, currentGroupIndex);
+        CompletableFuture<Boolean> result =
+                CACHE_ONLY ? CompletableFuture.completedFuture(false) : fetch(req, false);
+
+        return result.thenAcceptAsync(
+                success -> {
+                    if (!success) {
+                        useCacheAsBackup(req);
+                    }
+                },
+                HANDLER_POOL);
     }
 
-    private void nextDispatch(int dispatchId, List<List<Request>> groupedRequests, int currentGroupIndex) {
-        if (currentGroupIndex != groupedRequests.size() - 1) {
-            handleDispatch(dispatchId, groupedRequests, currentGroupIndex + 1);
+    private static void useCacheAsBackup(Request req) {
+        if (!req.useCacheAsBackup) {
+            WynntilsMod.warn("Request was not satisfied before and using cache as backup is not set");
+            req.onError();
             return;
         }
 
-        // Last group; Remove handled requests
-        Set<String> ids = new HashSet<>();
-        for (List<Request> requests : groupedRequests)
-            for (Request request : requests) {
-                ids.add(request.id);
+        try {
+            if (!req.handler.test(null, FileUtils.readFileToByteArray(req.cacheFile))) {
+                WynntilsMod.warn("Error occurred whilst trying to use cache for " + req.id + " at "
+                        + req.cacheFile.getPath() + ": Cache file is invalid");
+                FileUtils.deleteQuietly(req.cacheFile);
+                req.onError();
             }
-        synchronized (this) {
-            requests.removeIf(req -> ids.contains(req.id));
+        } catch (FileNotFoundException ignore) {
+            WynntilsMod.warn("Could not find file while trying to use cache as backup");
+            req.onError();
+        } catch (Exception e) {
+            WynntilsMod.warn(
+                    "Error occurred whilst trying to use cache for " + req.id + " at " + req.cacheFile.getPath(), e);
+            FileUtils.deleteQuietly(req.cacheFile);
+            req.onError();
         }
     }
 
-    private boolean handleHttpConnection(Request req) {
-        HttpURLConnection st;
+    /**
+     * Makes the web request and handles its data
+     *
+     * @param cacheHandled whether the cached data was already handled
+     */
+    private static CompletableFuture<Boolean> fetch(Request req, boolean cacheHandled) {
+        HttpRequest httpRequest;
         try {
-            st = req.establishConnection();
-            st.setReadTimeout(0);
-            if (st.getResponseCode() != 200) {
-                WynntilsMod.warn("Invalid response code for request");
-                st.disconnect();
-                return false;
-            }
+            httpRequest = req.buildHttpRequest();
         } catch (Exception e) {
             WynntilsMod.warn("Error occurred whilst fetching " + req.id + " from " + req.url, e);
-            return false;
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return HOST_LIMITERS
+                .computeIfAbsent(req.getHost(), host -> new HostLimiter())
+                .submit(() -> HTTP_CLIENT.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray()))
+                .handleAsync(
+                        (response, throwable) -> handleResponse(req, response, throwable, cacheHandled), HANDLER_POOL)
+                .thenCompose(Function.identity());
+    }
+
+    private static CompletableFuture<Boolean> handleResponse(
+            Request req, HttpResponse<byte[]> response, Throwable throwable, boolean cacheHandled) {
+        if (throwable != null) {
+            Throwable cause = throwable.getCause() != null ? throwable.getCause() : throwable;
+            WynntilsMod.warn("Error occurred whilst fetching " + req.id + " from " + req.url + ": "
+                    + (cause instanceof HttpTimeoutException ? "Timeout (server may be down)" : cause.getMessage()));
+            return CompletableFuture.completedFuture(false);
+        }
+
+        if (response.statusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            return handleNotModified(req, cacheHandled);
+        }
+        if (response.statusCode() != 200) {
+            WynntilsMod.warn("Invalid response code for request");
+            return CompletableFuture.completedFuture(false);
         }
 
         try {
-            byte[] data = IOUtils.toByteArray(st.getInputStream());
+            byte[] data = response.body();
+            if (cacheHandled && isSameAsCache(req, data)) {
+                // the host sent the cached data again instead of a 304, it was already handled
+                CacheMetadata.write(req.cacheFile, response);
+                return CompletableFuture.completedFuture(true);
+            }
+
             if (req.handler != null) {
-                if (req.handler.test(st, data)) {
+                if (req.handler.test(response, data)) {
                     if (req.cacheFile != null) {
                         try {
                             FileUtils.writeByteArrayToFile(req.cacheFile, data);
+                            CacheMetadata.write(req.cacheFile, response);
                         } catch (Exception e) {
                             WynntilsMod.warn("Error occurred whilst writing cache for " + req.id, e);
                             FileUtils.deleteQuietly(req.cacheFile);
+                            CacheMetadata.delete(req.cacheFile);
                         }
                     }
 
-                    return true;
+                    return CompletableFuture.completedFuture(true);
                 } else {
                     WynntilsMod.warn("Error occurred whilst fetching " + req.id + " from " + req.url);
                 }
             }
-        } catch (IOException e) {
-            WynntilsMod.warn("Error occurred whilst fetching " + req.id + " from " + req.url + ": "
-                    + (e instanceof SocketTimeoutException ? "Socket timeout (server may be down)" : e.getMessage()));
-        } catch (RuntimeException e) {
+        } catch (Exception e) {
             WynntilsMod.warn("Error occurred whilst fetching " + req.id + " from " + req.url, e);
         }
 
-        return false;
+        return CompletableFuture.completedFuture(false);
+    }
+
+    private static boolean isSameAsCache(Request req, byte[] data) {
+        try {
+            return Arrays.equals(data, FileUtils.readFileToByteArray(req.cacheFile));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** The cache file is still up-to-date, so use it as if it was the response */
+    private static CompletableFuture<Boolean> handleNotModified(Request req, boolean cacheHandled) {
+        if (cacheHandled) return CompletableFuture.completedFuture(true);
+
+        try {
+            if (req.handler.test(null, FileUtils.readFileToByteArray(req.cacheFile))) {
+                return CompletableFuture.completedFuture(true);
+            }
+        } catch (Exception e) {
+            WynntilsMod.warn("Error occurred whilst trying to use cache for " + req.id, e);
+        }
+
+        // The cache is broken; without it, the request is no longer conditional
+        WynntilsMod.warn("Cache for " + req.id + " at " + req.cacheFile.getPath() + " is invalid, fetching again");
+        FileUtils.deleteQuietly(req.cacheFile);
+        CacheMetadata.delete(req.cacheFile);
+        return fetch(req, false);
+    }
+
+    /** Limits how many requests are made to a single host at the same time */
+    private static final class HostLimiter {
+        private final Queue<Runnable> waiting = new ArrayDeque<>();
+        private int running = 0;
+
+        private <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            Runnable start = () -> {
+                CompletableFuture<T> started;
+                try {
+                    started = task.get();
+                } catch (RuntimeException e) {
+                    release();
+                    result.completeExceptionally(e);
+                    return;
+                }
+
+                started.whenComplete((value, throwable) -> {
+                    release();
+                    if (throwable != null) {
+                        result.completeExceptionally(throwable);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            };
+
+            boolean startNow;
+            synchronized (this) {
+                startNow = running < MAX_REQUESTS_PER_HOST;
+                if (startNow) {
+                    running++;
+                } else {
+                    waiting.add(start);
+                }
+            }
+
+            if (startNow) {
+                start.run();
+            }
+
+            return result;
+        }
+
+        private void release() {
+            Runnable next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    running--;
+                }
+            }
+
+            // The slot is handed over to the next waiting request
+            if (next != null) {
+                next.run();
+            }
+        }
     }
 }
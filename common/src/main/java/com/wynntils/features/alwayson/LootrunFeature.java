@@ -9,6 +9,8 @@ import com.wynntils.core.config.Config;
 import com.wynntils.core.config.ConfigHolder;
 import com.wynntils.core.features.StateManagedFeature;
 import com.wynntils.core.features.properties.StartDisabled;
+import com.wynntils.mc.event.BlockUpdateEvent;
+import com.wynntils.mc.event.ChunkEvent;
 import com.wynntils.mc.event.ClientTickEvent;
 import com.wynntils.mc.event.PlayerInteractEvent;
 import com.wynntils.mc.event.RenderLevelLastEvent;
@@ -72,7 +74,22 @@ public class LootrunFeature extends StateManagedFeature {
 
     @SubscribeEvent
     public void onRenderLastLevel(RenderLevelLastEvent event) {
-        LootrunModel.render(event.getPoseStack());
+        LootrunModel.render(event.getPoseStack(), event.getProjectionMatrix());
+    }
+
+    @SubscribeEvent
+    public void onChunkLoad(ChunkEvent.Load event) {
+        LootrunModel.onChunkChanged(event.getPos());
+    }
+
+    @SubscribeEvent
+    public void onChunkUnload(ChunkEvent.Unload event) {
+        LootrunModel.onChunkChanged(event.getPos());
+    }
+
+    @SubscribeEvent
+    public void onBlockUpdate(BlockUpdateEvent event) {
+        LootrunModel.onBlockUpdated(event.getPos(), event.getNewState());
     }
 
     @Override
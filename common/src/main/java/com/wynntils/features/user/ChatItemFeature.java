@@ -14,7 +14,6 @@ import com.wynntils.wynn.model.ChatItemModel;
 import com.wynntils.wynn.utils.WynnUtils;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
 import net.minecraft.client.gui.components.EditBox;
 import net.minecraft.client.gui.screens.ChatScreen;
 import net.minecraft.network.chat.Component;
@@ -46,16 +45,14 @@ public class ChatItemFeature extends UserFeature {
         }
 
         // replace encoded strings with placeholders for less confusion
-        Matcher m = ChatItemModel.chatItemMatcher(chatInput.getValue());
-        while (m.find()) {
-            String encodedItem = m.group();
-            StringBuilder name = new StringBuilder(m.group("Name"));
+        for (ChatItemModel.EncodedItem encodedItem : ChatItemModel.findEncodedItems(chatInput.getValue())) {
+            StringBuilder name = new StringBuilder(encodedItem.name());
             while (chatItems.containsKey(name.toString())) { // avoid overwriting entries
                 name.append("_");
             }
 
-            chatInput.setValue(chatInput.getValue().replace(encodedItem, "<" + name + ">"));
-            chatItems.put(name.toString(), encodedItem);
+            chatInput.setValue(chatInput.getValue().replace(encodedItem.encoded(), "<" + name + ">"));
+            chatItems.put(name.toString(), encodedItem.encoded());
         }
     }
 
@@ -64,7 +61,7 @@ public class ChatItemFeature extends UserFeature {
         if (!WynnUtils.onWorld()) return;
 
         Component message = e.getMessage();
-        if (!ChatItemModel.chatItemMatcher(message.getString()).find()) return; // no chat items to replace
+        if (!ChatItemModel.hasEncodedItems(message.getString())) return; // no chat items to replace
 
         e.setMessage(ChatItemModel.insertItemComponents(message));
     }
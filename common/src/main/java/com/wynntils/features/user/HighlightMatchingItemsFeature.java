@@ -6,19 +6,31 @@ package com.wynntils.features.user;
 
 import com.wynntils.core.config.Config;
 import com.wynntils.core.features.UserFeature;
+import com.wynntils.core.webapi.profiles.item.ItemProfile;
 import com.wynntils.gui.render.RenderUtils;
 import com.wynntils.gui.screens.TextboxScreen;
 import com.wynntils.gui.widgets.SearchWidget;
+import com.wynntils.mc.event.ContainerCloseEvent;
 import com.wynntils.mc.event.ScreenInitEvent;
+import com.wynntils.mc.event.SetSlotEvent;
 import com.wynntils.mc.event.SlotRenderEvent;
 import com.wynntils.mc.objects.CommonColors;
 import com.wynntils.mc.objects.CustomColor;
 import com.wynntils.mc.utils.ComponentUtils;
+import com.wynntils.utils.SearchIndex;
+import com.wynntils.wynn.item.GearItemStack;
 import com.wynntils.wynn.item.WynnItemStack;
 import com.wynntils.wynn.item.properties.ItemProperty;
-import java.util.Locale;
+import com.wynntils.wynn.item.properties.ItemTierProperty;
+import com.wynntils.wynn.objects.ItemIdentificationContainer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.Container;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 
@@ -26,6 +38,7 @@ public class HighlightMatchingItemsFeature extends UserFeature {
     private static final Pattern BANK_PATTERN = Pattern.compile("§0\\[Pg. (\\d+)\\] §8(.*)'s§0 Bank");
     private static final Pattern GUILD_BANK_PATTERN = Pattern.compile(".+: Bank \\(.+\\)");
     private static final Pattern MEMBER_LIST_PATTERN = Pattern.compile(".+: Members");
+    private static final Pattern LEVEL_PATTERN = Pattern.compile("Lv\\. Min: (\\d+)");
 
     @Config
     public boolean filterInBank = true;
@@ -39,6 +52,15 @@ public class HighlightMatchingItemsFeature extends UserFeature {
     @Config
     public CustomColor highlightColor = CommonColors.MAGENTA;
 
+    // the stacks in the slots of a searchable screen, kept up to date as slots are set
+    private final SearchIndex<WynnItemStack> searchIndex = new SearchIndex<>();
+    private final Map<SlotKey, WynnItemStack> indexedSlots = new HashMap<>();
+    private AbstractContainerScreen<?> indexedScreen = null;
+
+    private String search = "";
+    private Set<WynnItemStack> highlighted = Set.of();
+    private boolean searchOutdated = false;
+
     @SubscribeEvent
     public void onScreenInit(ScreenInitEvent event) {
         if (!(event.getScreen() instanceof AbstractContainerScreen<?> screen)) return;
@@ -51,13 +73,49 @@ public class HighlightMatchingItemsFeature extends UserFeature {
         int renderX = (screen.width - screen.imageWidth) / 2;
         int renderY = (screen.height - screen.imageHeight) / 2;
 
+        // screens are initialized again when resized, the index of their content stays valid then
+        if (screen != indexedScreen) {
+            resetIndex();
+        }
         if (!shouldAddSearch(title)) return;
 
+        indexedScreen = screen;
         addSearchWidget(screen, renderX, renderY);
     }
 
+    @SubscribeEvent
+    public void onContainerClose(ContainerCloseEvent.Post event) {
+        resetIndex();
+    }
+
+    @SubscribeEvent
+    public void onSetSlot(SetSlotEvent event) {
+        // the content of a screen is sent after it is initialized, so everything in it passes through here
+        if (indexedScreen == null) return;
+
+        SlotKey key = new SlotKey(event.getContainer(), event.getSlot());
+        WynnItemStack previous = indexedSlots.remove(key);
+        if (previous != null) {
+            searchIndex.remove(previous);
+        }
+
+        if (event.getItem() instanceof WynnItemStack wynnItemStack && !wynnItemStack.isEmpty()) {
+            indexedSlots.put(key, wynnItemStack);
+            searchIndex.add(wynnItemStack, createDocument(wynnItemStack));
+        }
+
+        if (!search.isEmpty()) {
+            searchOutdated = true;
+        }
+    }
+
     @SubscribeEvent
     public void onRenderSlot(SlotRenderEvent.Pre e) {
+        if (searchOutdated) {
+            // slots changed while searching, e.g. when switching bank pages
+            highlightMatchingItems(search);
+        }
+
         ItemStack item = e.getSlot().getItem();
 
         if (!(item instanceof WynnItemStack wynnItemStack)) return;
@@ -84,26 +142,83 @@ public class HighlightMatchingItemsFeature extends UserFeature {
     }
 
     private void addSearchWidget(AbstractContainerScreen<?> screen, int renderX, int renderY) {
-        screen.addRenderableWidget(new SearchWidget(
+        SearchWidget searchWidget = new SearchWidget(
                 renderX + screen.imageWidth - 100,
                 renderY - 20,
                 100,
                 20,
-                s -> highlightMatchingItems(s, screen),
-                (TextboxScreen) screen));
+                this::highlightMatchingItems,
+                (TextboxScreen) screen);
+        // keep the current search when the screen is initialized again after a resize
+        searchWidget.setTextBoxInput(search);
+
+        screen.addRenderableWidget(searchWidget);
     }
 
-    private void highlightMatchingItems(String search, AbstractContainerScreen<?> screen) {
-        search = search.toLowerCase(Locale.ROOT);
+    private void highlightMatchingItems(String search) {
+        this.search = search.trim();
+        searchOutdated = false;
+
+        Set<WynnItemStack> matches = searchIndex.search(this.search);
+
+        // only the stacks entering or leaving the result set need updating
+        for (WynnItemStack stack : highlighted) {
+            if (!matches.contains(stack)) {
+                stack.getProperty(ItemProperty.SEARCH_OVERLAY).setSearched(false);
+            }
+        }
+        for (WynnItemStack stack : matches) {
+            stack.getProperty(ItemProperty.SEARCH_OVERLAY).setSearched(true);
+        }
+
+        highlighted = matches;
+    }
 
-        for (ItemStack item : screen.getMenu().getItems()) {
-            if (!(item instanceof WynnItemStack wynnItemStack)) continue;
+    private void resetIndex() {
+        searchIndex.clear();
+        indexedSlots.clear();
+        indexedScreen = null;
 
-            String name = ComponentUtils.getUnformatted(item.getHoverName()).toLowerCase(Locale.ROOT);
+        search = "";
+        highlighted = Set.of();
+        searchOutdated = false;
+    }
 
-            boolean filtered = !search.equals("") && name.contains(search);
+    private static SearchIndex.Document createDocument(WynnItemStack stack) {
+        SearchIndex.Document document =
+                new SearchIndex.Document().text(SearchIndex.DEFAULT_FIELD, stack.getSimpleName());
 
-            wynnItemStack.getProperty(ItemProperty.SEARCH_OVERLAY).setSearched(filtered);
+        for (Component line : stack.getOriginalTooltip()) {
+            String lore = ComponentUtils.getUnformatted(line);
+            document.text("lore", lore);
+
+            Matcher levelMatcher = LEVEL_PATTERN.matcher(lore);
+            if (levelMatcher.find()) {
+                document.number("lvl", Integer.parseInt(levelMatcher.group(1)));
+            }
+        }
+
+        ItemTierProperty tierProperty = stack.getProperty(ItemProperty.ITEM_TIER);
+        if (tierProperty != null && tierProperty.getTier() != null) {
+            document.text("tier", tierProperty.getTier().toString());
         }
+
+        if (stack instanceof GearItemStack gearStack && gearStack.getItemProfile() != null) {
+            ItemProfile profile = gearStack.getItemProfile();
+            document.number("lvl", profile.getLevelRequirement());
+            if (profile.getItemInfo() != null) {
+                document.text("type", profile.getItemInfo().getType().name());
+            }
+
+            if (gearStack.getIdentifications() != null) {
+                for (ItemIdentificationContainer identification : gearStack.getIdentifications()) {
+                    document.text("id", identification.shortIdName());
+                }
+            }
+        }
+
+        return document;
     }
+
+    private record SlotKey(Container container, int slot) {}
 }
@@ -6,6 +6,7 @@ package com.wynntils.features.user;
 
 import com.wynntils.core.WynntilsMod;
 import com.wynntils.core.features.UserFeature;
+import com.wynntils.core.webapi.WebManager;
 import com.wynntils.core.webapi.request.Request;
 import com.wynntils.core.webapi.request.RequestBuilder;
 import com.wynntils.core.webapi.request.RequestHandler;
@@ -59,8 +60,8 @@ public class UpdateReminderFeature extends UserFeature {
                 })
                 .build();
 
-        RequestHandler handler = new RequestHandler();
+        RequestHandler handler = WebManager.getHandler();
 
-        handler.addAndDispatch(versionFetch, true);
+        handler.addAndDispatchAsync(versionFetch);
     }
 }
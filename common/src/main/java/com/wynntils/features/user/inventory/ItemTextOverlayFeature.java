@@ -7,6 +7,7 @@ package com.wynntils.features.user.inventory;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.wynntils.core.WynntilsMod;
 import com.wynntils.core.config.Config;
+import com.wynntils.core.config.ConfigHolder;
 import com.wynntils.core.features.UserFeature;
 import com.wynntils.core.features.properties.FeatureCategory;
 import com.wynntils.core.features.properties.FeatureInfo;
@@ -75,6 +76,12 @@ public class ItemTextOverlayFeature extends UserFeature {
     @Config
     public static boolean hotbarTextOverlayEnabled = true;
 
+    @Override
+    protected void onConfigUpdate(ConfigHolder configHolder) {
+        // the text overlays of cached stacks were built with the previous config
+        ItemStackTransformModel.invalidateCache();
+    }
+
     @Override
     public List<Class<? extends Model>> getModelDependencies() {
         return List.of(ItemStackTransformModel.class);
@@ -4,6 +4,8 @@
  */
 package com.wynntils.features.user.overlays.map;
 
+import com.mojang.blaze3d.pipeline.RenderTarget;
+import com.mojang.blaze3d.pipeline.TextureTarget;
 import com.mojang.blaze3d.platform.Window;
 import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.vertex.PoseStack;
@@ -28,12 +30,17 @@ import com.wynntils.gui.render.VerticalAlignment;
 import com.wynntils.mc.event.RenderEvent;
 import com.wynntils.mc.objects.CommonColors;
 import com.wynntils.mc.objects.CustomColor;
+import com.wynntils.mc.objects.Location;
 import com.wynntils.mc.utils.McUtils;
 import com.wynntils.utils.MathUtils;
+import com.wynntils.wynn.model.CompassModel;
 import com.wynntils.wynn.model.map.MapModel;
 import com.wynntils.wynn.model.map.MapTexture;
 import com.wynntils.wynn.utils.WynnUtils;
 import java.util.List;
+import java.util.Optional;
+import net.minecraft.client.Minecraft;
+import net.minecraft.util.Mth;
 
 @FeatureInfo(category = FeatureCategory.MAP)
 public class MinimapFeature extends UserFeature {
@@ -45,6 +52,11 @@ public class MinimapFeature extends UserFeature {
         return List.of(MapModel.class);
     }
 
+    @Override
+    protected void onDisable() {
+        minimapOverlay.releaseTarget();
+    }
+
     public static class MinimapOverlay extends Overlay {
         private static final int DEFAULT_SIZE = 150;
 
@@ -81,6 +93,25 @@ public class MinimapFeature extends UserFeature {
         @Config
         public boolean showCoords = true;
 
+        @Config
+        public int maxRedrawRate = 30;
+
+        // The map, its POIs and the cursor are drawn to this, and only redrawn when what they show changes
+        private RenderTarget minimapTarget = null;
+        private boolean redrawNeeded = true;
+        private long lastRedraw = 0;
+        private double lastX;
+        private double lastZ;
+        private float lastYaw;
+        private float lastRenderX;
+        private float lastRenderY;
+        private float lastWidth;
+        private float lastHeight;
+        private double lastGuiScale;
+        private int lastMapRevision;
+        private double lastCompassX;
+        private double lastCompassZ;
+
         protected MinimapOverlay() {
             super(
                     new OverlayPosition(
@@ -106,6 +137,108 @@ public class MinimapFeature extends UserFeature {
             float centerX = renderX + width / 2;
             float centerZ = renderY + height / 2;
 
+            if (isRedrawNeeded(renderX, renderY, width, height)) {
+                redrawMinimap(poseStack, renderX, renderY, width, height, centerX, centerZ);
+            }
+
+            RenderSystem.enableBlend();
+            RenderSystem.defaultBlendFunc();
+            RenderUtils.drawRenderTarget(poseStack, minimapTarget, renderX, renderY, width, height);
+
+            // render border
+            renderMapBorder(poseStack, renderX, renderY, width, height);
+
+            // Directional Text
+            renderCardinalDirections(poseStack, width, height, centerX, centerZ);
+
+            // Coordinates
+            if (showCoords) {
+                String coords = String.format(
+                        "%s, %s, %s",
+                        (int) McUtils.player().getX(), (int) McUtils.player().getY(), (int)
+                                McUtils.player().getZ());
+
+                FontRenderer.getInstance()
+                        .renderText(
+                                poseStack,
+                                centerX,
+                                renderY + height + 10 * height / DEFAULT_SIZE,
+                                new TextRenderTask(
+                                        coords,
+                                        TextRenderSetting.CENTERED.withTextShadow(FontRenderer.TextShadow.OUTLINE)));
+            }
+        }
+
+        /**
+         * Whether the player moved or turned by at least a screen pixel on the minimap, or the map, the compass or
+         * the layout or config of the minimap changed since it was last drawn. Layout and config changes redraw right
+         * away, everything else at most {@link #maxRedrawRate} times a second.
+         */
+        private boolean isRedrawNeeded(float renderX, float renderY, float width, float height) {
+            RenderTarget mainTarget = McUtils.mc().getMainRenderTarget();
+            double guiScale = McUtils.guiScale();
+
+            if (redrawNeeded
+                    || minimapTarget == null
+                    || minimapTarget.width != mainTarget.width
+                    || minimapTarget.height != mainTarget.height
+                    || renderX != lastRenderX
+                    || renderY != lastRenderY
+                    || width != lastWidth
+                    || height != lastHeight
+                    || guiScale != lastGuiScale) {
+                return true;
+            }
+
+            if (maxRedrawRate > 0 && System.currentTimeMillis() - lastRedraw < 1000 / maxRedrawRate) return false;
+
+            double blocksPerPixel = scale / guiScale;
+            double degreesPerPixel = Math.toDegrees(1 / (Math.max(width, height) / 2 * guiScale));
+            Optional<Location> compass = CompassModel.getCompassLocation();
+
+            return Math.abs(McUtils.player().getX() - lastX) >= blocksPerPixel
+                    || Math.abs(McUtils.player().getZ() - lastZ) >= blocksPerPixel
+                    || Math.abs(Mth.wrapDegrees(McUtils.player().getYRot() - lastYaw)) >= degreesPerPixel
+                    || MapModel.getRevision() != lastMapRevision
+                    || Double.compare(compass.map(location -> location.x).orElse(Double.NaN), lastCompassX) != 0
+                    || Double.compare(compass.map(location -> location.z).orElse(Double.NaN), lastCompassZ) != 0;
+        }
+
+        private void redrawMinimap(
+                PoseStack poseStack,
+                float renderX,
+                float renderY,
+                float width,
+                float height,
+                float centerX,
+                float centerZ) {
+            RenderTarget mainTarget = McUtils.mc().getMainRenderTarget();
+            // window sized, so everything is drawn at the same coordinates as it would be on screen
+            if (minimapTarget == null) {
+                minimapTarget = new TextureTarget(mainTarget.width, mainTarget.height, true, Minecraft.ON_OSX);
+            } else if (minimapTarget.width != mainTarget.width || minimapTarget.height != mainTarget.height) {
+                minimapTarget.resize(mainTarget.width, mainTarget.height, Minecraft.ON_OSX);
+            }
+
+            Optional<Location> compass = CompassModel.getCompassLocation();
+            redrawNeeded = false;
+            lastRedraw = System.currentTimeMillis();
+            lastX = McUtils.player().getX();
+            lastZ = McUtils.player().getZ();
+            lastYaw = McUtils.player().getYRot();
+            lastRenderX = renderX;
+            lastRenderY = renderY;
+            lastWidth = width;
+            lastHeight = height;
+            lastGuiScale = McUtils.guiScale();
+            lastMapRevision = MapModel.getRevision();
+            lastCompassX = compass.map(location -> location.x).orElse(Double.NaN);
+            lastCompassZ = compass.map(location -> location.z).orElse(Double.NaN);
+
+            minimapTarget.setClearColor(0f, 0f, 0f, 0f);
+            minimapTarget.clear(Minecraft.ON_OSX);
+            minimapTarget.bindWrite(true);
+
             // enable mask
             switch (maskType) {
                 case Rectangular -> RenderUtils.enableScissor((int) renderX, (int) renderY, (int) width, (int) height);
@@ -155,34 +288,13 @@ public class MinimapFeature extends UserFeature {
                     this.pointerColor,
                     this.pointerType);
 
-            // disable mask & render border
+            // disable mask
             switch (maskType) {
                 case Rectangular -> RenderSystem.disableScissor();
                 case Circle -> RenderUtils.clearMask();
             }
 
-            // render border
-            renderMapBorder(poseStack, renderX, renderY, width, height);
-
-            // Directional Text
-            renderCardinalDirections(poseStack, width, height, centerX, centerZ);
-
-            // Coordinates
-            if (showCoords) {
-                String coords = String.format(
-                        "%s, %s, %s",
-                        (int) McUtils.player().getX(), (int) McUtils.player().getY(), (int)
-                                McUtils.player().getZ());
-
-                FontRenderer.getInstance()
-                        .renderText(
-                                poseStack,
-                                centerX,
-                                renderY + height + 10 * height / DEFAULT_SIZE,
-                                new TextRenderTask(
-                                        coords,
-                                        TextRenderSetting.CENTERED.withTextShadow(FontRenderer.TextShadow.OUTLINE)));
-            }
+            mainTarget.bindWrite(true);
         }
 
         private void renderCardinalDirections(
@@ -294,7 +406,22 @@ public class MinimapFeature extends UserFeature {
         }
 
         @Override
-        protected void onConfigUpdate(ConfigHolder configHolder) {}
+        protected void onConfigUpdate(ConfigHolder configHolder) {
+            redrawNeeded = true;
+
+            if (configHolder.getFieldName().equals("userEnabled") && !isEnabled()) {
+                releaseTarget();
+            }
+        }
+
+        /** Frees the window-sized render target while the minimap is not shown, it is created again when needed */
+        private void releaseTarget() {
+            if (minimapTarget == null) return;
+
+            RenderTarget target = minimapTarget;
+            minimapTarget = null;
+            RenderSystem.recordRenderCall(target::destroyBuffers);
+        }
     }
 
     public enum CompassRenderType {
@@ -6,11 +6,14 @@ package com.wynntils.features.user.tooltips;
 
 import com.google.common.collect.ImmutableList;
 import com.wynntils.core.config.Config;
+import com.wynntils.core.config.ConfigHolder;
 import com.wynntils.core.features.UserFeature;
 import com.wynntils.core.features.properties.FeatureCategory;
 import com.wynntils.core.features.properties.FeatureInfo;
 import com.wynntils.core.features.properties.FeatureInfo.Stability;
 import com.wynntils.core.managers.Model;
+import com.wynntils.utils.TaskUtils;
+import com.wynntils.wynn.item.ItemGuessIndex;
 import com.wynntils.wynn.item.ItemStackTransformModel;
 import java.util.List;
 
@@ -26,6 +29,15 @@ public class ItemGuessFeature extends UserFeature {
         conditions.add(new WebLoadedCondition());
     }
 
+    @Override
+    protected void onConfigUpdate(ConfigHolder configHolder) {
+        // guesses were built with the previous config, rebuild them off the render thread before dropping the stacks
+        TaskUtils.runAsync(() -> {
+            ItemGuessIndex.rebuild();
+            ItemStackTransformModel.invalidateCache();
+        });
+    }
+
     @Override
     public List<Class<? extends Model>> getModelDependencies() {
         return List.of(ItemStackTransformModel.class);
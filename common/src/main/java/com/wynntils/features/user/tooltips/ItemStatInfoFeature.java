@@ -6,12 +6,15 @@ package com.wynntils.features.user.tooltips;
 
 import com.google.common.collect.ImmutableList;
 import com.wynntils.core.config.Config;
+import com.wynntils.core.config.ConfigHolder;
 import com.wynntils.core.features.UserFeature;
 import com.wynntils.core.features.properties.FeatureCategory;
 import com.wynntils.core.features.properties.FeatureInfo;
 import com.wynntils.core.features.properties.FeatureInfo.Stability;
 import com.wynntils.core.managers.Model;
+import com.wynntils.wynn.item.GearItemStack;
 import com.wynntils.wynn.item.ItemStackTransformModel;
+import com.wynntils.wynn.model.ChatItemModel;
 import java.util.List;
 
 @FeatureInfo(stability = Stability.STABLE, category = FeatureCategory.TOOLTIPS)
@@ -45,6 +48,14 @@ public class ItemStatInfoFeature extends UserFeature {
         conditions.add(new WebLoadedCondition());
     }
 
+    @Override
+    protected void onConfigUpdate(ConfigHolder configHolder) {
+        // names and tooltips were built with the previous config
+        GearItemStack.invalidateTooltips();
+        ChatItemModel.clearDecodedItems();
+        ItemStackTransformModel.invalidateCache();
+    }
+
     @Override
     public List<Class<? extends Model>> getModelDependencies() {
         return List.of(ItemStackTransformModel.class);
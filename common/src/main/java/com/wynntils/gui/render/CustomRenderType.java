@@ -12,12 +12,12 @@ import net.minecraft.client.renderer.RenderStateShard;
 import net.minecraft.client.renderer.RenderType;
 
 public class CustomRenderType extends RenderType {
-    // Copied from RenderType.LINE_STRIP and changed the line width from the default
+    // Copied from RenderType.LINES and changed the line width from the default
     // to 3
     public static final RenderType LOOTRUN_LINE = RenderType.create(
             "lootrun",
             DefaultVertexFormat.POSITION_COLOR_NORMAL,
-            Mode.LINE_STRIP,
+            Mode.LINES,
             256,
             false,
             false,
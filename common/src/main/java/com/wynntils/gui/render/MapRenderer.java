@@ -22,9 +22,11 @@ import com.wynntils.wynn.model.map.MapModel;
 import com.wynntils.wynn.model.map.MapTexture;
 import com.wynntils.wynn.model.map.poi.LabelPoi;
 import com.wynntils.wynn.model.map.poi.Poi;
-import java.util.Comparator;
 import java.util.List;
+import net.minecraft.client.gui.Font;
 import net.minecraft.client.renderer.GameRenderer;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.resources.ResourceLocation;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL13;
 
@@ -57,13 +59,84 @@ public final class MapRenderer {
                     poseStack, centerX, centerZ, 180 - McUtils.player().getYRot());
         }
 
+        // scale is in gui pixels, the level of detail is picked by screen pixels
+        ResourceLocation mapTexture = map.resource(scale / (float) McUtils.guiScale());
+        if (mapTexture != null) {
+            renderMapTexture(
+                    map,
+                    mapTexture,
+                    poseStack,
+                    centerX,
+                    centerZ,
+                    textureX,
+                    textureZ,
+                    width,
+                    height,
+                    scale,
+                    followPlayerRotation,
+                    renderUsingLinear);
+        }
+
+        float mapLeftX = centerX - width / 2f;
+        float mapTopZ = centerZ - height / 2f;
+        float mapRightX = centerX + width / 2f;
+        float mapBottomZ = centerZ + height / 2f;
+
+        if (renderMapLabels) {
+            renderLabelPois(
+                    poseStack,
+                    mapCenterX,
+                    mapCenterZ,
+                    centerX,
+                    centerZ,
+                    scale,
+                    mapLeftX,
+                    mapTopZ,
+                    mapRightX,
+                    mapBottomZ);
+        }
+
+        // disable rotation if necessary
+        if (followPlayerRotation) {
+            poseStack.popPose();
+        }
+
+        renderTexturedPois(
+                poseStack,
+                mapCenterX,
+                mapCenterZ,
+                centerX,
+                centerZ,
+                scale,
+                poiScale,
+                mouseCoordinates,
+                followPlayerRotation,
+                mapLeftX,
+                mapTopZ,
+                mapRightX,
+                mapBottomZ);
+    }
+
+    private static void renderMapTexture(
+            MapTexture map,
+            ResourceLocation mapTexture,
+            PoseStack poseStack,
+            float centerX,
+            float centerZ,
+            float textureX,
+            float textureZ,
+            float width,
+            float height,
+            float scale,
+            boolean followPlayerRotation,
+            boolean renderUsingLinear) {
         // has to be before setting shader texture
         int option = renderUsingLinear ? GL11.GL_LINEAR : GL11.GL_NEAREST;
         RenderSystem.texParameter(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, option);
         RenderSystem.texParameter(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, option);
 
         RenderSystem.setShader(GameRenderer::getPositionTexShader);
-        RenderSystem.setShaderTexture(0, map.resource());
+        RenderSystem.setShaderTexture(0, mapTexture);
 
         // clamp map rendering
         // has to be after setting shader texture
@@ -114,45 +187,6 @@ public final class MapRenderer {
                 .endVertex();
         bufferBuilder.end();
         BufferUploader.end(bufferBuilder);
-
-        float mapLeftX = centerX - width / 2f;
-        float mapTopZ = centerZ - height / 2f;
-        float mapRightX = centerX + width / 2f;
-        float mapBottomZ = centerZ + height / 2f;
-
-        if (renderMapLabels) {
-            renderLabelPois(
-                    poseStack,
-                    mapCenterX,
-                    mapCenterZ,
-                    centerX,
-                    centerZ,
-                    scale,
-                    mapLeftX,
-                    mapTopZ,
-                    mapRightX,
-                    mapBottomZ);
-        }
-
-        // disable rotation if necessary
-        if (followPlayerRotation) {
-            poseStack.popPose();
-        }
-
-        renderTexturedPois(
-                poseStack,
-                mapCenterX,
-                mapCenterZ,
-                centerX,
-                centerZ,
-                scale,
-                poiScale,
-                mouseCoordinates,
-                followPlayerRotation,
-                mapLeftX,
-                mapTopZ,
-                mapRightX,
-                mapBottomZ);
     }
 
     private static void renderLabelPois(
@@ -166,40 +200,55 @@ public final class MapRenderer {
             float mapTopZ,
             float mapRightX,
             float mapBottomZ) {
-        List<LabelPoi> labelPois = MapModel.getAllPois()
-                .filter(poi -> poi instanceof LabelPoi)
-                .filter(poi -> isPoiVisible(
-                        mapCenterX, mapCenterZ, centerX, centerZ, scale, mapLeftX, mapTopZ, mapRightX, mapBottomZ, poi))
-                .map(poi -> (LabelPoi) poi)
-                .toList();
+        List<LabelPoi> labelPois = MapModel.getLabelPoisNear(
+                getMapX(mapLeftX, mapCenterX, centerX, scale),
+                getMapX(mapRightX, mapCenterX, centerX, scale),
+                getMapZ(mapTopZ, mapCenterZ, centerZ, scale),
+                getMapZ(mapBottomZ, mapCenterZ, centerZ, scale));
+
+        // all labels, and their shadows, go into one buffer and are drawn together at the end
+        Font font = FontRenderer.getInstance().getFont();
+        Matrix4f matrix = poseStack.last().pose();
+        MultiBufferSource.BufferSource bufferSource =
+                MultiBufferSource.immediate(Tesselator.getInstance().getBuilder());
 
         for (LabelPoi labelPoi : labelPois) {
+            if (!isPoiVisible(
+                    mapCenterX,
+                    mapCenterZ,
+                    centerX,
+                    centerZ,
+                    scale,
+                    mapLeftX,
+                    mapTopZ,
+                    mapRightX,
+                    mapBottomZ,
+                    labelPoi)) {
+                continue;
+            }
+
             float x = labelPoi.getLocation().getX();
             float z = labelPoi.getLocation().getZ();
             double distanceX = x - mapCenterX;
             double distanceZ = z - mapCenterZ;
 
-            float textureXPosition = (float) (centerX
-                    + distanceX / scale
-                    - FontRenderer.getInstance()
-                                    .getFont()
-                                    .width(labelPoi.getLabel().getName())
-                            / 2f
-                            / scale);
+            float textureXPosition = (float) (centerX + distanceX / scale - labelPoi.getTextWidth() / 2f / scale);
             float textureZPosition = (float) (centerZ + distanceZ / scale - 4.5f / scale);
 
-            FontRenderer.getInstance()
-                    .renderText(
-                            poseStack,
-                            labelPoi.getLabel().getName(),
-                            textureXPosition,
-                            textureZPosition,
-                            0,
-                            CommonColors.WHITE,
-                            HorizontalAlignment.Left,
-                            VerticalAlignment.Top,
-                            FontRenderer.TextShadow.NORMAL);
+            font.drawInBatch(
+                    labelPoi.getLabel().getName(),
+                    textureXPosition,
+                    textureZPosition,
+                    CommonColors.WHITE.asInt(),
+                    true,
+                    matrix,
+                    bufferSource,
+                    false,
+                    0,
+                    0xf000f0);
         }
+
+        bufferSource.endBatch();
     }
 
     private static void renderTexturedPois(
@@ -216,12 +265,11 @@ public final class MapRenderer {
             float mapTopZ,
             float mapRightX,
             float mapBottomZ) {
-        List<Poi> pois = MapModel.getAllPois()
-                .filter(poi -> poi.getIcon() != null)
-                .filter(poi -> isPoiVisible(
-                        mapCenterX, mapCenterZ, centerX, centerZ, scale, mapLeftX, mapTopZ, mapRightX, mapBottomZ, poi))
-                .sorted(Comparator.comparing(poi -> poi.getLocation().getY()))
-                .toList();
+        List<Poi> pois = MapModel.getTexturedPoisNear(
+                getMapX(mapLeftX, mapCenterX, centerX, scale),
+                getMapX(mapRightX, mapCenterX, centerX, scale),
+                getMapZ(mapTopZ, mapCenterZ, centerZ, scale),
+                getMapZ(mapBottomZ, mapCenterZ, centerZ, scale));
 
         if (mouseCoordinates != null) {
             hovered = null;
@@ -232,6 +280,11 @@ public final class MapRenderer {
         final float cosRotationRadians = (float) -StrictMath.cos(rotationRadians);
 
         for (Poi poi : pois) {
+            if (!isPoiVisible(
+                    mapCenterX, mapCenterZ, centerX, centerZ, scale, mapLeftX, mapTopZ, mapRightX, mapBottomZ, poi)) {
+                continue;
+            }
+
             Pair<Float, Float> renderPositions = getRenderPositions(
                     followPlayerRotation,
                     mapCenterX,
@@ -435,6 +488,16 @@ public final class MapRenderer {
         return (float) (centerZ + distanceZ * currentZoom);
     }
 
+    /** The inverse of {@link #getRenderX}, the in-game X coordinate shown at the given render X */
+    private static float getMapX(float renderX, float mapCenterX, float centerX, float scale) {
+        return mapCenterX + (renderX - centerX) * scale;
+    }
+
+    /** The inverse of {@link #getRenderZ}, the in-game Z coordinate shown at the given render Z */
+    private static float getMapZ(float renderZ, float mapCenterZ, float centerZ, float scale) {
+        return mapCenterZ + (renderZ - centerZ) * scale;
+    }
+
     public static List<MapTexture> getMapTextures(
             int mapCenterX, int mapCenterZ, float renderWidth, float renderHeight, float scale) {
         float renderDistanceX = renderWidth / 2f;
@@ -315,6 +315,32 @@ public final class RenderUtils {
         BufferUploader.end(bufferBuilder);
     }
 
+    /**
+     * Draws the part of a window sized render target under the given rectangle, to the same place on the screen
+     */
+    public static void drawRenderTarget(
+            PoseStack poseStack, RenderTarget target, float x, float y, float width, float height) {
+        double guiScale = McUtils.guiScale();
+        float u1 = (float) (x * guiScale / target.width);
+        float u2 = (float) ((x + width) * guiScale / target.width);
+        // render targets start at the bottom left, the gui at the top left
+        float v1 = 1f - (float) (y * guiScale / target.height);
+        float v2 = 1f - (float) ((y + height) * guiScale / target.height);
+
+        Matrix4f matrix = poseStack.last().pose();
+
+        RenderSystem.setShader(GameRenderer::getPositionTexShader);
+        RenderSystem.setShaderTexture(0, target.getColorTextureId());
+        BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
+        bufferBuilder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_TEX);
+        bufferBuilder.vertex(matrix, x, y + height, 0).uv(u1, v2).endVertex();
+        bufferBuilder.vertex(matrix, x + width, y + height, 0).uv(u2, v2).endVertex();
+        bufferBuilder.vertex(matrix, x + width, y, 0).uv(u2, v1).endVertex();
+        bufferBuilder.vertex(matrix, x, y, 0).uv(u1, v1).endVertex();
+        bufferBuilder.end();
+        BufferUploader.end(bufferBuilder);
+    }
+
     public static void drawScalingTexturedRect(
             PoseStack poseStack,
             ResourceLocation tex,
@@ -12,9 +12,11 @@ import com.mojang.math.Matrix4f;
 import com.wynntils.core.WynntilsMod;
 import com.wynntils.mc.event.AddEntityLookupEvent;
 import com.wynntils.mc.event.ArmSwingEvent;
+import com.wynntils.mc.event.BlockUpdateEvent;
 import com.wynntils.mc.event.BossHealthUpdateEvent;
 import com.wynntils.mc.event.ChatPacketReceivedEvent;
 import com.wynntils.mc.event.ChatSentEvent;
+import com.wynntils.mc.event.ChunkEvent;
 import com.wynntils.mc.event.ClientTickEvent;
 import com.wynntils.mc.event.CommandsPacketEvent;
 import com.wynntils.mc.event.ConnectionEvent.ConnectedEvent;
@@ -102,7 +104,9 @@ import net.minecraft.world.inventory.ClickType;
 import net.minecraft.world.inventory.Slot;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.PotionItem;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.entity.EntityAccess;
 import net.minecraft.world.phys.BlockHitResult;
 import net.minecraft.world.phys.Vec3;
@@ -386,6 +390,18 @@ public final class EventFactory {
         return post(new ScoreboardSetScoreEvent(
                 packet.getOwner(), packet.getObjectiveName(), packet.getScore(), packet.getMethod()));
     }
+
+    public static void onChunkLoad(ChunkPos pos) {
+        post(new ChunkEvent.Load(pos));
+    }
+
+    public static void onChunkUnload(ChunkPos pos) {
+        post(new ChunkEvent.Unload(pos));
+    }
+
+    public static void onBlockUpdate(BlockPos pos, BlockState oldState, BlockState newState) {
+        post(new BlockUpdateEvent(pos, oldState, newState));
+    }
     // endregion
 
     // region Packet Events
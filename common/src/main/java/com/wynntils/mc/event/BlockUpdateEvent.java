@@ -0,0 +1,34 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.mc.event;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.eventbus.api.Event;
+
+/** Fired when a block of the client level changes */
+public class BlockUpdateEvent extends Event {
+    private final BlockPos pos;
+    private final BlockState oldState;
+    private final BlockState newState;
+
+    public BlockUpdateEvent(BlockPos pos, BlockState oldState, BlockState newState) {
+        this.pos = pos;
+        this.oldState = oldState;
+        this.newState = newState;
+    }
+
+    public BlockPos getPos() {
+        return pos;
+    }
+
+    public BlockState getOldState() {
+        return oldState;
+    }
+
+    public BlockState getNewState() {
+        return newState;
+    }
+}
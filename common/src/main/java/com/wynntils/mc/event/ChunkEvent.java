@@ -0,0 +1,33 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.mc.event;
+
+import net.minecraft.world.level.ChunkPos;
+import net.minecraftforge.eventbus.api.Event;
+
+/** Fired when a chunk of the client level is loaded or unloaded */
+public abstract class ChunkEvent extends Event {
+    private final ChunkPos pos;
+
+    protected ChunkEvent(ChunkPos pos) {
+        this.pos = pos;
+    }
+
+    public ChunkPos getPos() {
+        return pos;
+    }
+
+    public static class Load extends ChunkEvent {
+        public Load(ChunkPos pos) {
+            super(pos);
+        }
+    }
+
+    public static class Unload extends ChunkEvent {
+        public Unload(ChunkPos pos) {
+            super(pos);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.mc.event;
+
+import com.wynntils.core.events.EventThread;
+import net.minecraftforge.eventbus.api.Event;
+
+/**
+ * Fired when web content loaded by {@link com.wynntils.core.webapi.WebManager} becomes available. Content is first
+ * loaded from the cache if possible, so these can be fired again once the content has been revalidated.
+ */
+public abstract class WebLoadedEvent extends Event {
+    @EventThread(EventThread.Type.WORKER)
+    public static class ItemListLoaded extends WebLoadedEvent {}
+
+    @EventThread(EventThread.Type.WORKER)
+    public static class ItemGuessesLoaded extends WebLoadedEvent {}
+
+    @EventThread(EventThread.Type.WORKER)
+    public static class AccountLoaded extends WebLoadedEvent {}
+
+    /** Fired once all startup phases of {@link com.wynntils.core.webapi.WebManager#init()} are done */
+    @EventThread(EventThread.Type.WORKER)
+    public static class StartupFinished extends WebLoadedEvent {}
+}
@@ -6,6 +6,10 @@ package com.wynntils.mc.mixin;
 
 import com.wynntils.mc.EventFactory;
 import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -18,4 +22,23 @@ public abstract class ClientLevelMixin {
         // User-triggered logoff
         EventFactory.onDisconnect();
     }
+
+    @Inject(method = "onChunkLoaded(Lnet/minecraft/world/level/ChunkPos;)V", at = @At("RETURN"))
+    private void onChunkLoadedPost(ChunkPos chunkPos, CallbackInfo ci) {
+        EventFactory.onChunkLoad(chunkPos);
+    }
+
+    @Inject(method = "unload(Lnet/minecraft/world/level/chunk/LevelChunk;)V", at = @At("HEAD"))
+    private void unloadPre(LevelChunk chunk, CallbackInfo ci) {
+        EventFactory.onChunkUnload(chunk.getPos());
+    }
+
+    @Inject(
+            method =
+                    "sendBlockUpdated(Lnet/minecraft/core/BlockPos;Lnet/minecraft/world/level/block/state/BlockState;Lnet/minecraft/world/level/block/state/BlockState;I)V",
+            at = @At("HEAD"))
+    private void sendBlockUpdatedPre(
+            BlockPos pos, BlockState oldState, BlockState newState, int flags, CallbackInfo ci) {
+        EventFactory.onBlockUpdate(pos, oldState, newState);
+    }
 }
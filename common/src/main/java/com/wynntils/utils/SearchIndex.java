@@ -0,0 +1,243 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An incrementally maintained inverted index over documents made of text and number fields.
+ *
+ * <p>Queries are whitespace separated terms which must all match:
+ * <ul>
+ *   <li>{@code word} matches documents with {@code word} anywhere in their {@link #DEFAULT_FIELD}</li>
+ *   <li>{@code field:word} matches documents with a token in {@code field} starting with {@code word}</li>
+ *   <li>{@code field:>80}, {@code field:<=5}, {@code field:80} and {@code field:80-90} match number fields</li>
+ * </ul>
+ * A term naming a field nothing was indexed under is searched for in the default field as a whole.
+ *
+ * <p>Text is matched case insensitively. Looking a term up only touches the index entries matching it, so a query
+ * costs as much as its results rather than as much as the whole index.
+ */
+public final class SearchIndex<T> {
+    public static final String DEFAULT_FIELD = "";
+
+    private static final Pattern TOKEN_SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern NUMBER_QUERY =
+            Pattern.compile("(<=|>=|<|>|=)?(-?\\d+(?:\\.\\d+)?)(?:-(-?\\d+(?:\\.\\d+)?))?");
+    // a key starting with this marks the start of a token, which is how prefix lookups are told apart
+    private static final char TOKEN_START = '\u0001';
+
+    // field -> index keys of the tokens in that field -> documents containing such a token, see indexKeys
+    private final Map<String, TreeMap<String, Set<T>>> textFields = new HashMap<>();
+    private final Map<String, TreeMap<Double, Set<T>>> numberFields = new HashMap<>();
+    private final Map<T, Document> documents = new HashMap<>();
+
+    public void add(T item, Document document) {
+        remove(item);
+        documents.put(item, document);
+
+        document.text.forEach((field, tokens) -> {
+            TreeMap<String, Set<T>> suffixes = textFields.computeIfAbsent(field, k -> new TreeMap<>());
+            for (String token : tokens) {
+                for (String key : indexKeys(field, token)) {
+                    suffixes.computeIfAbsent(key, k -> new HashSet<>()).add(item);
+                }
+            }
+        });
+        document.numbers.forEach((field, values) -> {
+            TreeMap<Double, Set<T>> numbers = numberFields.computeIfAbsent(field, k -> new TreeMap<>());
+            for (double value : values) {
+                numbers.computeIfAbsent(value, k -> new HashSet<>()).add(item);
+            }
+        });
+    }
+
+    public void remove(T item) {
+        Document document = documents.remove(item);
+        if (document == null) return;
+
+        document.text.forEach((field, tokens) -> {
+            TreeMap<String, Set<T>> suffixes = textFields.get(field);
+            for (String token : tokens) {
+                for (String key : indexKeys(field, token)) {
+                    removeFrom(suffixes, key, item);
+                }
+            }
+        });
+        document.numbers.forEach((field, values) -> {
+            TreeMap<Double, Set<T>> numbers = numberFields.get(field);
+            for (double value : values) {
+                removeFrom(numbers, value, item);
+            }
+        });
+    }
+
+    public void clear() {
+        textFields.clear();
+        numberFields.clear();
+        documents.clear();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /** Returns the documents matching all terms of the query, or an empty set for a blank query */
+    public Set<T> search(String query) {
+        List<Set<T>> termResults = new ArrayList<>();
+        for (String term : query.toLowerCase(Locale.ROOT).trim().split("\\s+")) {
+            if (term.isEmpty()) continue;
+
+            Set<T> result = searchTerm(term);
+            if (result.isEmpty()) return Set.of();
+
+            termResults.add(result);
+        }
+
+        if (termResults.isEmpty()) return Set.of();
+
+        // intersect starting from the smallest result, so the work done is bounded by it
+        termResults.sort(Comparator.comparingInt(Set::size));
+        Set<T> matches = new HashSet<>(termResults.get(0));
+        for (int i = 1; i < termResults.size() && !matches.isEmpty(); i++) {
+            matches.retainAll(termResults.get(i));
+        }
+        return matches;
+    }
+
+    private Set<T> searchTerm(String term) {
+        int separator = term.indexOf(':');
+        if (separator > 0 && separator < term.length() - 1) {
+            String field = term.substring(0, separator);
+            String value = term.substring(separator + 1);
+
+            TreeMap<Double, Set<T>> numbers = numberFields.get(field);
+            if (numbers != null) {
+                Matcher matcher = NUMBER_QUERY.matcher(value);
+                if (matcher.matches()) return union(numberRange(numbers, matcher).values());
+            }
+
+            TreeMap<String, Set<T>> suffixes = textFields.get(field);
+            if (suffixes != null) return searchTokens(suffixes, value, String.valueOf(TOKEN_START));
+        }
+
+        TreeMap<String, Set<T>> suffixes = textFields.get(DEFAULT_FIELD);
+        if (suffixes == null) return Set.of();
+
+        return searchTokens(suffixes, term, "");
+    }
+
+    private Set<T> searchTokens(TreeMap<String, Set<T>> suffixes, String text, String marker) {
+        Set<T> result = null;
+        for (String token : tokenize(text)) {
+            Set<T> tokenResult = union(withPrefix(suffixes, marker + token));
+            if (result == null) {
+                result = tokenResult;
+            } else {
+                result.retainAll(tokenResult);
+            }
+            if (result.isEmpty()) break;
+        }
+        return result == null ? Set.of() : result;
+    }
+
+    /**
+     * The default field is searched anywhere in its tokens, so every suffix of a token is a key. Other fields are
+     * only searched by token prefix, so the token itself behind {@link #TOKEN_START} is the only key.
+     */
+    private static List<String> indexKeys(String field, String token) {
+        if (!field.equals(DEFAULT_FIELD)) return List.of(TOKEN_START + token);
+
+        List<String> keys = new ArrayList<>(token.length());
+        for (int i = 0; i < token.length(); i++) {
+            keys.add(token.substring(i));
+        }
+        return keys;
+    }
+
+    private static <T> NavigableMap<Double, Set<T>> numberRange(TreeMap<Double, Set<T>> numbers, Matcher matcher) {
+        String comparator = matcher.group(1);
+        double value = Double.parseDouble(matcher.group(2));
+
+        if (matcher.group(3) != null) {
+            double upper = Double.parseDouble(matcher.group(3));
+            return numbers.subMap(Math.min(value, upper), true, Math.max(value, upper), true);
+        }
+        if (comparator == null || comparator.equals("=")) {
+            return numbers.subMap(value, true, value, true);
+        }
+
+        return switch (comparator) {
+            case "<" -> numbers.headMap(value, false);
+            case "<=" -> numbers.headMap(value, true);
+            case ">" -> numbers.tailMap(value, false);
+            default -> numbers.tailMap(value, true);
+        };
+    }
+
+    private static <T> Collection<Set<T>> withPrefix(TreeMap<String, Set<T>> suffixes, String prefix) {
+        return suffixes.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+    }
+
+    private static <T> Set<T> union(Collection<Set<T>> sets) {
+        Set<T> result = new HashSet<>();
+        for (Set<T> set : sets) {
+            result.addAll(set);
+        }
+        return result;
+    }
+
+    private static <K, T> void removeFrom(Map<K, Set<T>> index, K key, T item) {
+        Set<T> items = index.get(key);
+        if (items == null) return;
+
+        items.remove(item);
+        if (items.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return tokens;
+    }
+
+    /** The fields of one indexed document */
+    public static final class Document {
+        private final Map<String, Set<String>> text = new HashMap<>();
+        private final Map<String, Set<Double>> numbers = new HashMap<>();
+
+        /** Adds the words of the given text to a text field, use {@link #DEFAULT_FIELD} for unqualified search */
+        public Document text(String field, String value) {
+            if (value == null) return this;
+
+            List<String> tokens = tokenize(value);
+            if (!tokens.isEmpty()) {
+                text.computeIfAbsent(field, k -> new HashSet<>()).addAll(tokens);
+            }
+            return this;
+        }
+
+        public Document number(String field, double value) {
+            numbers.computeIfAbsent(field, k -> new HashSet<>()).add(value);
+            return this;
+        }
+    }
+}
@@ -22,12 +22,13 @@ import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import net.minecraft.ChatFormatting;
 import net.minecraft.nbt.CompoundTag;
@@ -46,6 +47,14 @@ public class GearItemStack extends WynnItemStack {
 
     private static final Component ID_PLACEHOLDER = new TextComponent("ID_PLACEHOLDER");
 
+    private static final int PERFECT_CYCLE = 5000;
+    // one frame per tick is as smooth as the name can be redrawn anyway
+    private static final int PERFECT_FRAMES = PERFECT_CYCLE / 50;
+    private static final Map<String, Component[]> PERFECT_NAME_FRAMES = new ConcurrentHashMap<>();
+
+    // bumped when the config the tooltips are built with changes, so every stack rebuilds them on next use
+    private static int tooltipGeneration = 0;
+
     private ItemProfile itemProfile;
     private boolean isPerfect;
     private boolean isDefective;
@@ -61,9 +70,7 @@ public class GearItemStack extends WynnItemStack {
     private List<Powder> powders;
     private int rerolls;
 
-    private List<Component> percentTooltip;
-    private List<Component> rangeTooltip;
-    private List<Component> rerollTooltip;
+    private Tooltips tooltips = new Tooltips();
 
     public GearItemStack(ItemStack stack) {
         super(stack);
@@ -126,7 +133,7 @@ public class GearItemStack extends WynnItemStack {
             baseTooltip = ComponentUtils.stripDuplicateBlank(baseTooltip);
         }
 
-        constructTooltips(baseTooltip);
+        tooltips.base = baseTooltip;
 
         // overall percent & name
         parseIDs();
@@ -147,9 +154,7 @@ public class GearItemStack extends WynnItemStack {
         customName = new TextComponent(itemProfile.getDisplayName())
                 .withStyle(itemProfile.getTier().getChatFormatting());
 
-        List<Component> baseTooltip = constructBaseTooltip();
         identifications = WynnItemUtils.identificationsFromProfile(itemProfile);
-        constructTooltips(baseTooltip);
     }
 
     /** Chat item constructor - used when decoding an encoded chat string */
@@ -176,8 +181,33 @@ public class GearItemStack extends WynnItemStack {
                 .withStyle(itemProfile.getTier().getChatFormatting());
 
         parseIDs();
-        List<Component> baseTooltip = constructBaseTooltip();
-        constructTooltips(baseTooltip);
+    }
+
+    private GearItemStack(GearItemStack other) {
+        super(other);
+
+        itemProfile = other.itemProfile;
+        isPerfect = other.isPerfect;
+        isDefective = other.isDefective;
+        overallPercentage = other.overallPercentage;
+        hasNew = other.hasNew;
+        isGuideStack = other.isGuideStack;
+        isChatItem = other.isChatItem;
+        customName = other.customName;
+        identifications = other.identifications;
+        powders = other.powders;
+        rerolls = other.rerolls;
+        tooltips = other.tooltips;
+    }
+
+    @Override
+    public GearItemStack shallowCopy() {
+        return new GearItemStack(this);
+    }
+
+    /** Makes all gear stacks rebuild their tooltips the next time they are shown */
+    public static void invalidateTooltips() {
+        tooltipGeneration++;
     }
 
     public ItemProfile getItemProfile() {
@@ -212,29 +242,15 @@ public class GearItemStack extends WynnItemStack {
     public Component getHoverName() {
         if (isGuideStack || isChatItem) return customName;
 
-        /*
-         * This math was originally based off Avaritia code.
-         * Special thanks for Morpheus1101 and SpitefulFox
-         * Avaritia Repo: https://github.com/Morpheus1101/Avaritia
-         */
         if (ItemStatInfoFeature.perfect && isPerfect) {
-            MutableComponent newName = new TextComponent("").withStyle(ChatFormatting.BOLD);
-
-            String name = "Perfect " + itemName;
-
-            int cycle = 5000;
-
-            int time = (int) (System.currentTimeMillis() % cycle);
-            for (int i = 0; i < name.length(); i++) {
-                int hue = (time + i * cycle / 7) % cycle;
-                Style color = Style.EMPTY
-                        .withColor(Color.HSBtoRGB((hue / (float) cycle), 0.8F, 0.8F))
-                        .withItalic(false);
-
-                newName.append(new TextComponent(String.valueOf(name.charAt(i))).setStyle(color));
+            // the frames of the animation are built once per name, picking one allocates nothing
+            Component[] frames = PERFECT_NAME_FRAMES.computeIfAbsent(itemName, k -> new Component[PERFECT_FRAMES]);
+            int frame = (int) (System.currentTimeMillis() % PERFECT_CYCLE) * PERFECT_FRAMES / PERFECT_CYCLE;
+            if (frames[frame] == null) {
+                frames[frame] = buildPerfectName(itemName, frame * PERFECT_CYCLE / PERFECT_FRAMES);
             }
 
-            return newName;
+            return frames[frame];
         }
 
         if (ItemStatInfoFeature.defective && isDefective) {
@@ -289,8 +305,10 @@ public class GearItemStack extends WynnItemStack {
         List<Component> tooltip = new ArrayList<>();
         tooltip.add(getHoverName());
 
+        Tooltips tooltips = getTooltips();
+
         if (isGuideStack) {
-            tooltip.addAll(rangeTooltip);
+            tooltip.addAll(tooltips.range);
             return tooltip;
         }
 
@@ -299,21 +317,43 @@ public class GearItemStack extends WynnItemStack {
                     .withStyle(ChatFormatting.DARK_GRAY)
                     .withStyle(ChatFormatting.ITALIC));
 
-            tooltip.addAll(percentTooltip);
+            tooltip.addAll(tooltips.percent);
             return tooltip;
         }
 
         if (KeyboardUtils.isKeyDown(GLFW.GLFW_KEY_LEFT_SHIFT)) {
-            tooltip.addAll(rangeTooltip);
+            tooltip.addAll(tooltips.range);
         } else if (KeyboardUtils.isKeyDown(GLFW.GLFW_KEY_LEFT_CONTROL)) {
-            tooltip.addAll(rerollTooltip);
+            tooltip.addAll(tooltips.reroll);
         } else {
-            tooltip.addAll(percentTooltip);
+            tooltip.addAll(tooltips.percent);
         }
 
         return tooltip;
     }
 
+    /*
+     * This math was originally based off Avaritia code.
+     * Special thanks for Morpheus1101 and SpitefulFox
+     * Avaritia Repo: https://github.com/Morpheus1101/Avaritia
+     */
+    private static Component buildPerfectName(String itemName, int time) {
+        MutableComponent newName = new TextComponent("").withStyle(ChatFormatting.BOLD);
+
+        String name = "Perfect " + itemName;
+
+        for (int i = 0; i < name.length(); i++) {
+            int hue = (time + i * PERFECT_CYCLE / 7) % PERFECT_CYCLE;
+            Style color = Style.EMPTY
+                    .withColor(Color.HSBtoRGB((hue / (float) PERFECT_CYCLE), 0.8F, 0.8F))
+                    .withItalic(false);
+
+            newName.append(new TextComponent(String.valueOf(name.charAt(i))).setStyle(color));
+        }
+
+        return newName;
+    }
+
     private void parseIDs() {
         overallPercentage = -1f;
         hasNew = identifications.stream().anyMatch(ItemIdentificationContainer::isNew);
@@ -346,24 +386,46 @@ public class GearItemStack extends WynnItemStack {
         customName = name;
     }
 
-    private void constructTooltips(List<Component> baseTooltip) {
+    private Tooltips getTooltips() {
+        if (tooltips.generation != tooltipGeneration) {
+            // guide and chat stacks have no lore to take the base tooltip from, it is built from the profile instead
+            if (tooltips.base == null) {
+                tooltips.base = constructBaseTooltip();
+            }
+
+            constructTooltips(tooltips.base);
+            tooltips.generation = tooltipGeneration;
+        }
+
+        return tooltips;
+    }
+
+    private void constructTooltips(List<Component> base) {
+        List<Component> baseTooltip = new ArrayList<>(base);
         int idIndex = baseTooltip.indexOf(ID_PLACEHOLDER);
         baseTooltip.remove(ID_PLACEHOLDER);
 
-        percentTooltip = new ArrayList<>(baseTooltip);
-        rangeTooltip = new ArrayList<>(baseTooltip);
-        rerollTooltip = new ArrayList<>(baseTooltip);
+        List<Component> percentTooltip = new ArrayList<>(baseTooltip);
+        List<Component> rangeTooltip = new ArrayList<>(baseTooltip);
+        List<Component> rerollTooltip = new ArrayList<>(baseTooltip);
 
         if (!identifications.isEmpty() && idIndex != -1) {
-            Map<String, Component> percentMap = identifications.stream()
-                    .collect(Collectors.toMap(
-                            ItemIdentificationContainer::shortIdName, ItemIdentificationContainer::percentLoreLine));
-            Map<String, Component> rangeMap = identifications.stream()
-                    .collect(Collectors.toMap(
-                            ItemIdentificationContainer::shortIdName, ItemIdentificationContainer::rangeLoreLine));
-            Map<String, Component> rerollMap = identifications.stream()
-                    .collect(Collectors.toMap(
-                            ItemIdentificationContainer::shortIdName, ItemIdentificationContainer::rerollLoreLine));
+            // the lines are only built here, from the parsed values, so they always follow the current config
+            Map<String, Component> percentMap = new HashMap<>();
+            Map<String, Component> rangeMap = new HashMap<>();
+            Map<String, Component> rerollMap = new HashMap<>();
+            for (ItemIdentificationContainer id : identifications) {
+                if (isGuideStack) {
+                    Component line = WynnItemUtils.getGuideLoreLine(id);
+                    percentMap.put(id.shortIdName(), line);
+                    rangeMap.put(id.shortIdName(), line);
+                    rerollMap.put(id.shortIdName(), line);
+                } else {
+                    percentMap.put(id.shortIdName(), WynnItemUtils.getPercentLoreLine(id));
+                    rangeMap.put(id.shortIdName(), WynnItemUtils.getRangeLoreLine(id));
+                    rerollMap.put(id.shortIdName(), WynnItemUtils.getRerollLoreLine(id));
+                }
+            }
 
             Collection<Component> orderedPercents;
             Collection<Component> orderedRanges;
@@ -386,6 +448,10 @@ public class GearItemStack extends WynnItemStack {
             rangeTooltip.addAll(idIndex, orderedRanges);
             rerollTooltip.addAll(idIndex, orderedRerolls);
         }
+
+        tooltips.percent = percentTooltip;
+        tooltips.range = rangeTooltip;
+        tooltips.reroll = rerollTooltip;
     }
 
     private List<Component> constructBaseTooltip() {
@@ -500,4 +566,16 @@ public class GearItemStack extends WynnItemStack {
 
         return baseTooltip;
     }
+
+    /**
+     * The parsed base tooltip and the tooltip variants built from it. Shared between shallow copies, so the variants
+     * are built at most once per config change no matter how many copies are shown.
+     */
+    private static final class Tooltips {
+        private List<Component> base;
+        private int generation = -1;
+        private List<Component> percent;
+        private List<Component> range;
+        private List<Component> reroll;
+    }
 }
@@ -26,6 +26,16 @@ public class IntelligenceSkillPointsItemStack extends WynnItemStack {
         super(stack);
     }
 
+    private IntelligenceSkillPointsItemStack(IntelligenceSkillPointsItemStack other) {
+        // the mana tables depend on the character, so they are rebuilt when the copy is initialized
+        super(other);
+    }
+
+    @Override
+    public IntelligenceSkillPointsItemStack shallowCopy() {
+        return new IntelligenceSkillPointsItemStack(this);
+    }
+
     @Override
     public void init() {
         List<Component> newTooltip = new ArrayList<>(getOriginalTooltip());
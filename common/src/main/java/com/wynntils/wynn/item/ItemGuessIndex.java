@@ -0,0 +1,124 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.item;
+
+import com.wynntils.core.webapi.WebManager;
+import com.wynntils.core.webapi.profiles.ItemGuessProfile;
+import com.wynntils.core.webapi.profiles.item.ItemProfile;
+import com.wynntils.core.webapi.profiles.item.ItemTier;
+import com.wynntils.core.webapi.profiles.item.ItemType;
+import com.wynntils.features.user.tooltips.ItemGuessFeature;
+import com.wynntils.wynn.objects.EmeraldSymbols;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.TextComponent;
+import net.minecraft.network.chat.TranslatableComponent;
+
+/**
+ * The item guess tooltip lines of every level range, item type and tier combination, rebuilt all at once whenever
+ * the item guesses, the item list or the config they depend on change.
+ */
+public final class ItemGuessIndex {
+    private static volatile Map<GuessKey, List<Component>> index = Map.of();
+
+    /** Returns the lines to append to the tooltip of an unidentified item, or an empty list if there are no guesses */
+    public static List<Component> getGuessTooltip(String levelRange, ItemType itemType, ItemTier tier) {
+        return index.getOrDefault(new GuessKey(levelRange, itemType, tier), List.of());
+    }
+
+    /**
+     * Builds the index from the currently loaded item guesses and item list, and publishes it once complete. Rebuilds
+     * run one at a time, so the index published last is always built from the latest data.
+     */
+    public static synchronized void rebuild() {
+        index = buildIndex();
+    }
+
+    private static Map<GuessKey, List<Component>> buildIndex() {
+        Map<String, ItemGuessProfile> itemGuesses = WebManager.getItemGuesses();
+        Map<String, ItemProfile> itemsMap = WebManager.getItemsMap();
+        // not loaded yet, the index is rebuilt once they are
+        if (itemGuesses == null || itemsMap == null) return Map.of();
+
+        Map<GuessKey, List<Component>> newIndex = new HashMap<>();
+        for (Map.Entry<String, ItemGuessProfile> rangeEntry : itemGuesses.entrySet()) {
+            String levelRange = rangeEntry.getKey();
+
+            for (Map.Entry<ItemType, Map<ItemTier, List<String>>> typeEntry :
+                    rangeEntry.getValue().getItems().entrySet()) {
+                for (Map.Entry<ItemTier, List<String>> tierEntry : typeEntry.getValue().entrySet()) {
+                    List<String> items = tierEntry.getValue();
+                    if (items == null || items.isEmpty()) continue;
+
+                    newIndex.put(
+                            new GuessKey(levelRange, typeEntry.getKey(), tierEntry.getKey()),
+                            buildGuessTooltip(items, tierEntry.getKey(), itemsMap));
+                }
+            }
+        }
+
+        return newIndex;
+    }
+
+    private static List<Component> buildGuessTooltip(
+            List<String> items, ItemTier tier, Map<String, ItemProfile> itemsMap) {
+        List<Component> tooltip = new ArrayList<>();
+        tooltip.add(new TranslatableComponent("feature.wynntils.itemGuess.possibilities"));
+
+        Map<Integer, List<MutableComponent>> levelToItems = new TreeMap<>();
+
+        for (String item : items) {
+            ItemProfile profile = itemsMap.get(item);
+
+            int level = (profile != null) ? profile.getLevelRequirement() : -1;
+
+            MutableComponent itemDesc = new TextComponent(item).withStyle(tier.getChatFormatting());
+
+            levelToItems.computeIfAbsent(level, i -> new ArrayList<>()).add(itemDesc);
+        }
+
+        for (Map.Entry<Integer, List<MutableComponent>> entry : levelToItems.entrySet()) {
+            int level = entry.getKey();
+            List<MutableComponent> itemsForLevel = entry.getValue();
+
+            MutableComponent guesses = new TextComponent("    ");
+
+            guesses.append(
+                    new TranslatableComponent("feature.wynntils.itemGuess.levelLine", level == -1 ? "?" : level));
+
+            if (ItemGuessFeature.showGuessesPrice && level != -1) {
+                guesses.append(new TextComponent(" [")
+                        .append(new TextComponent(
+                                        (tier.getItemIdentificationCost(level) + " " + EmeraldSymbols.E_STRING))
+                                .withStyle(ChatFormatting.GREEN))
+                        .append(new TextComponent("]"))
+                        .withStyle(ChatFormatting.GRAY));
+            }
+
+            guesses.append("§7: ");
+
+            Optional<MutableComponent> itemsComponent = itemsForLevel.stream()
+                    .reduce((i, j) -> i.append(new TextComponent(", ").withStyle(ChatFormatting.GRAY))
+                            .append(j));
+
+            if (itemsComponent.isPresent()) {
+                guesses.append(itemsComponent.get());
+
+                tooltip.add(guesses);
+            }
+        }
+
+        return List.copyOf(tooltip);
+    }
+
+    private record GuessKey(String levelRange, ItemType itemType, ItemTier tier) {}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.item;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * A bounded LRU cache of transformed stacks, keyed by the item, count and NBT tag of the stack they were made from.
+ *
+ * Wynncraft resends identical stacks all the time (reopening containers, inventory resyncs, bank pages), this lets
+ * {@link ItemStackTransformModel} hand out a {@link WynnItemStack#shallowCopy()} instead of parsing them again.
+ */
+final class ItemStackCache {
+    private static final int MAX_SIZE = 512;
+
+    private final Map<Key, WynnItemStack> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, WynnItemStack> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /** Returns a copy of the stack previously transformed from an identical stack, or null if there is none */
+    synchronized WynnItemStack get(ItemStack stack) {
+        WynnItemStack cached = cache.get(new Key(stack.getItem(), stack.getCount(), stack.getTag()));
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return cached.shallowCopy();
+    }
+
+    synchronized void put(ItemStack original, WynnItemStack transformed) {
+        CompoundTag tag = original.getTag();
+        // both the key and the value are copied, so later changes to the stacks in the slots can't leak in here
+        Key key = new Key(original.getItem(), original.getCount(), tag == null ? null : tag.copy());
+        cache.put(key, transformed.shallowCopy());
+    }
+
+    synchronized void clear() {
+        cache.clear();
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized int size() {
+        return cache.size();
+    }
+
+    private static final class Key {
+        private final Item item;
+        private final int count;
+        private final CompoundTag tag;
+        private final int hash;
+
+        private Key(Item item, int count, CompoundTag tag) {
+            this.item = item;
+            this.count = count;
+            this.tag = tag;
+            // tags hash by content, so identical stacks resent by the server map to the same key
+            this.hash = Objects.hash(item, count, tag);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return hash == other.hash && item == other.item && count == other.count && Objects.equals(tag, other.tag);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
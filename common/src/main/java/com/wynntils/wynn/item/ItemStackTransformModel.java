@@ -6,6 +6,9 @@ package com.wynntils.wynn.item;
 
 import com.wynntils.core.managers.Model;
 import com.wynntils.mc.event.SetSlotEvent;
+import com.wynntils.mc.event.WebLoadedEvent;
+import com.wynntils.utils.TaskUtils;
+import com.wynntils.wynn.item.parsers.ItemFeatures;
 import com.wynntils.wynn.item.parsers.WynnItemMatchers;
 import com.wynntils.wynn.item.properties.AmplifierTierProperty;
 import com.wynntils.wynn.item.properties.ConsumableChargeProperty;
@@ -24,38 +27,71 @@ import com.wynntils.wynn.item.properties.SearchOverlayProperty;
 import com.wynntils.wynn.item.properties.SkillIconProperty;
 import com.wynntils.wynn.item.properties.SkillPointProperty;
 import com.wynntils.wynn.item.properties.TeleportScrollProperty;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
 import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 
 public class ItemStackTransformModel extends Model {
-    private static final Map<Predicate<ItemStack>, ItemStackTransformer> TRANSFORMERS = new HashMap<>();
-    private static final Map<Predicate<ItemStack>, PropertyWriter> PROPERTIES = new HashMap<>();
+    private static final List<Rule<ItemStackTransformer>> TRANSFORMERS = new ArrayList<>();
+    private static final List<Rule<PropertyWriter>> PROPERTIES = new ArrayList<>();
 
-    public static void registerTransformer(Predicate<ItemStack> pred, ItemStackTransformer cons) {
-        TRANSFORMERS.put(pred, cons);
+    // the rules that can apply to each item type, built from the lists above the first time the type is seen
+    private static final Map<Item, DecisionRow> DECISION_TABLE = new HashMap<>();
+
+    private static final ItemStackCache CACHE = new ItemStackCache();
+
+    public static void registerTransformer(Predicate<ItemFeatures> pred, ItemStackTransformer cons, Item... items) {
+        TRANSFORMERS.add(new Rule<>(Set.of(items), pred, cons));
+        DECISION_TABLE.clear();
+    }
+
+    public static void unregisterTransformer(Predicate<ItemFeatures> pred, ItemStackTransformer cons) {
+        TRANSFORMERS.removeIf(rule -> rule.predicate() == pred && rule.action() == cons);
+        DECISION_TABLE.clear();
+    }
+
+    public static void registerProperty(Predicate<ItemFeatures> pred, PropertyWriter cons, Item... items) {
+        PROPERTIES.add(new Rule<>(Set.of(items), pred, cons));
+        DECISION_TABLE.clear();
     }
 
-    public void unregisterTransformer(Predicate<ItemStack> pred, ItemStackTransformer cons) {
-        TRANSFORMERS.remove(pred, cons);
+    public static void unregisterProperty(Predicate<ItemFeatures> pred, PropertyWriter cons) {
+        PROPERTIES.removeIf(rule -> rule.predicate() == pred && rule.action() == cons);
+        DECISION_TABLE.clear();
     }
 
-    public static void registerProperty(Predicate<ItemStack> pred, PropertyWriter cons) {
-        PROPERTIES.put(pred, cons);
+    /** Drops all cached stacks, to be called when anything the transformers depend on changes */
+    public static void invalidateCache() {
+        CACHE.clear();
     }
 
-    public void unregisterProperty(Predicate<ItemStack> pred, PropertyWriter cons) {
-        PROPERTIES.remove(pred, cons);
+    public static long getCacheHits() {
+        return CACHE.getHits();
+    }
+
+    public static long getCacheMisses() {
+        return CACHE.getMisses();
+    }
+
+    public static int getCacheSize() {
+        return CACHE.size();
     }
 
     public static void init() {
+        // transformers are tried in registration order, the first match wins
+        registerTransformer(WynnItemMatchers::isUnidentified, UnidentifiedItemStack::new, Items.STONE_SHOVEL);
+        registerTransformer(WynnItemMatchers::isSoulPoint, SoulPointItemStack::new, Items.NETHER_STAR, Items.SNOW);
+        registerTransformer(
+                WynnItemMatchers::isIntelligenceSkillPoints, IntelligenceSkillPointsItemStack::new, Items.BOOK);
         registerTransformer(WynnItemMatchers::isKnownGear, GearItemStack::new);
-        registerTransformer(WynnItemMatchers::isUnidentified, UnidentifiedItemStack::new);
-        registerTransformer(WynnItemMatchers::isSoulPoint, SoulPointItemStack::new);
-        registerTransformer(WynnItemMatchers::isIntelligenceSkillPoints, IntelligenceSkillPointsItemStack::new);
 
         registerProperty(WynnItemMatchers::isDurabilityItem, DurabilityProperty::new);
         registerProperty(WynnItemMatchers::isTieredItem, ItemTierProperty::new);
@@ -69,41 +105,94 @@ public class ItemStackTransformModel extends Model {
         registerProperty(WynnItemMatchers::isTeleportScroll, TeleportScrollProperty::new);
         registerProperty(WynnItemMatchers::isDungeonKey, DungeonKeyProperty::new);
         registerProperty(WynnItemMatchers::isAmplifier, AmplifierTierProperty::new);
-        registerProperty(WynnItemMatchers::isConsumable, ConsumableChargeProperty::new);
+        registerProperty(
+                WynnItemMatchers::isConsumable, ConsumableChargeProperty::new, Items.POTION, Items.DIAMOND_AXE);
         registerProperty(WynnItemMatchers::isIngredient, IngredientProperty::new);
         registerProperty(WynnItemMatchers::isMaterial, MaterialProperty::new);
-        registerProperty(WynnItemMatchers::isHorse, HorseProperty::new);
-        registerProperty(itemStack -> true, SearchOverlayProperty::new);
+        registerProperty(WynnItemMatchers::isHorse, HorseProperty::new, Items.SADDLE);
+        registerProperty(features -> true, SearchOverlayProperty::new);
+
+        // the web data may have loaded before this model was enabled, in which case the load events were missed
+        TaskUtils.runAsync(() -> {
+            ItemGuessIndex.rebuild();
+            invalidateCache();
+        });
     }
 
     @SubscribeEvent(priority = EventPriority.HIGHEST)
     public static void onSetSlot(SetSlotEvent event) {
         ItemStack stack = event.getItem();
 
+        WynnItemStack cached = CACHE.get(stack);
+        if (cached != null) {
+            cached.init();
+            event.setItem(cached);
+            return;
+        }
+
+        // every matcher reads from the same features, so the name and tooltip are decoded at most once per slot.
+        // properties match against the features of the original stack, as transformed stacks only rewrite how the
+        // same wynncraft data is displayed
+        ItemFeatures features = new ItemFeatures(stack);
+        DecisionRow row = DECISION_TABLE.computeIfAbsent(features.getItem(), ItemStackTransformModel::buildRow);
+
         // itemstack transformers
-        for (Map.Entry<Predicate<ItemStack>, ItemStackTransformer> e : TRANSFORMERS.entrySet()) {
-            if (e.getKey().test(stack)) {
-                stack = e.getValue().transform(stack);
+        for (Rule<ItemStackTransformer> rule : row.transformers()) {
+            if (rule.predicate().test(features)) {
+                stack = rule.action().transform(stack);
                 break;
             }
         }
 
         // itemstack properties
-        for (Map.Entry<Predicate<ItemStack>, PropertyWriter> e : PROPERTIES.entrySet()) {
-            if (e.getKey().test(stack)) {
+        for (Rule<PropertyWriter> rule : row.properties()) {
+            if (rule.predicate().test(features)) {
                 if (!(stack instanceof WynnItemStack))
                     stack = new WynnItemStack(stack); // create WynnItemStack wrapper to hold properties if necessary
 
-                e.getValue().attach((WynnItemStack) stack);
+                rule.action().attach((WynnItemStack) stack);
             }
         }
 
         if (stack instanceof WynnItemStack wynnItemStack) {
             wynnItemStack.init();
+            CACHE.put(event.getItem(), wynnItemStack);
         }
         event.setItem(stack);
     }
 
+    @SubscribeEvent
+    public static void onItemListLoaded(WebLoadedEvent.ItemListLoaded event) {
+        // gear stacks hold the profiles of the previous item list, and item guesses list their levels
+        // built here on the web worker thread rather than on the first unidentified stack
+        ItemGuessIndex.rebuild();
+        invalidateCache();
+    }
+
+    @SubscribeEvent
+    public static void onItemGuessesLoaded(WebLoadedEvent.ItemGuessesLoaded event) {
+        ItemGuessIndex.rebuild();
+        invalidateCache();
+    }
+
+    private static DecisionRow buildRow(Item item) {
+        return new DecisionRow(
+                TRANSFORMERS.stream().filter(rule -> rule.appliesTo(item)).toList(),
+                PROPERTIES.stream().filter(rule -> rule.appliesTo(item)).toList());
+    }
+
+    /**
+     * A matcher with the item types it can possibly match. An empty set means the matcher has to be tried for all
+     * item types.
+     */
+    private record Rule<T>(Set<Item> items, Predicate<ItemFeatures> predicate, T action) {
+        private boolean appliesTo(Item item) {
+            return items.isEmpty() || items.contains(item);
+        }
+    }
+
+    private record DecisionRow(List<Rule<ItemStackTransformer>> transformers, List<Rule<PropertyWriter>> properties) {}
+
     @FunctionalInterface
     private interface ItemStackTransformer {
         WynnItemStack transform(ItemStack stack);
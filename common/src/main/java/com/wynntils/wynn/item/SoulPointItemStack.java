@@ -26,6 +26,17 @@ public class SoulPointItemStack extends WynnItemStack {
         tooltip = getOriginalTooltip();
     }
 
+    private SoulPointItemStack(SoulPointItemStack other) {
+        super(other);
+
+        tooltip = other.tooltip;
+    }
+
+    @Override
+    public SoulPointItemStack shallowCopy() {
+        return new SoulPointItemStack(this);
+    }
+
     @Override
     public List<Component> getTooltipLines(Player player, TooltipFlag isAdvanced) {
         if (SoulPointTimerFeature.INSTANCE.isEnabled()) {
@@ -5,24 +5,13 @@
 package com.wynntils.wynn.item;
 
 import com.wynntils.core.WynntilsMod;
-import com.wynntils.core.webapi.WebManager;
-import com.wynntils.core.webapi.profiles.ItemGuessProfile;
-import com.wynntils.core.webapi.profiles.item.ItemProfile;
 import com.wynntils.core.webapi.profiles.item.ItemTier;
 import com.wynntils.core.webapi.profiles.item.ItemType;
 import com.wynntils.features.user.tooltips.ItemGuessFeature;
-import com.wynntils.wynn.objects.EmeraldSymbols;
 import com.wynntils.wynn.utils.WynnUtils;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
-import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.Component;
-import net.minecraft.network.chat.MutableComponent;
-import net.minecraft.network.chat.TextComponent;
-import net.minecraft.network.chat.TranslatableComponent;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.TooltipFlag;
@@ -61,61 +50,20 @@ public class UnidentifiedItemStack extends WynnItemStack {
         }
 
         if (levelRange == null) return;
-        if (WebManager.getItemGuesses() == null || WebManager.getItemsMap() == null) return;
 
-        ItemGuessProfile guessProfile = WebManager.getItemGuesses().get(levelRange);
-        if (guessProfile == null) return;
-
-        Map<ItemTier, List<String>> rarityMap = guessProfile.getItems().get(itemType);
-        if (rarityMap == null) return;
-
-        List<String> items = rarityMap.get(tier);
-        if (items == null || items.isEmpty()) return;
-
-        tooltip.add(new TranslatableComponent("feature.wynntils.itemGuess.possibilities"));
-
-        Map<Integer, List<MutableComponent>> levelToItems = new TreeMap<>();
-
-        for (String item : items) {
-            ItemProfile profile = WebManager.getItemsMap().get(item);
-
-            int level = (profile != null) ? profile.getLevelRequirement() : -1;
-
-            MutableComponent itemDesc = new TextComponent(item).withStyle(tier.getChatFormatting());
-
-            levelToItems.computeIfAbsent(level, i -> new ArrayList<>()).add(itemDesc);
-        }
-
-        for (Map.Entry<Integer, List<MutableComponent>> entry : levelToItems.entrySet()) {
-            int level = entry.getKey();
-            List<MutableComponent> itemsForLevel = entry.getValue();
-
-            MutableComponent guesses = new TextComponent("    ");
-
-            guesses.append(
-                    new TranslatableComponent("feature.wynntils.itemGuess.levelLine", level == -1 ? "?" : level));
-
-            if (ItemGuessFeature.showGuessesPrice && level != -1) {
-                guesses.append(new TextComponent(" [")
-                        .append(new TextComponent(
-                                        (tier.getItemIdentificationCost(level) + " " + EmeraldSymbols.E_STRING))
-                                .withStyle(ChatFormatting.GREEN))
-                        .append(new TextComponent("]"))
-                        .withStyle(ChatFormatting.GRAY));
-            }
-
-            guesses.append("§7: ");
+        tooltip.addAll(ItemGuessIndex.getGuessTooltip(levelRange, itemType, tier));
+    }
 
-            Optional<MutableComponent> itemsComponent = itemsForLevel.stream()
-                    .reduce((i, j) -> i.append(new TextComponent(", ").withStyle(ChatFormatting.GRAY))
-                            .append(j));
+    private UnidentifiedItemStack(UnidentifiedItemStack other) {
+        super(other);
 
-            if (itemsComponent.isPresent()) {
-                guesses.append(itemsComponent.get());
+        tooltip = other.tooltip;
+        itemType = other.itemType;
+    }
 
-                tooltip.add(guesses);
-            }
-        }
+    @Override
+    public UnidentifiedItemStack shallowCopy() {
+        return new UnidentifiedItemStack(this);
     }
 
     @Override
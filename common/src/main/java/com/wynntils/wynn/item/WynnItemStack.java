@@ -9,14 +9,41 @@ import com.wynntils.wynn.item.properties.ItemProperty;
 import com.wynntils.wynn.item.properties.type.PropertyType;
 import com.wynntils.wynn.utils.WynnUtils;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.TooltipFlag.Default;
 
 public class WynnItemStack extends ItemStack {
+    // every class properties can be looked up by gets a small index into the propertiesByType array of each stack
+    private static final AtomicInteger NEXT_TYPE_INDEX = new AtomicInteger();
+    private static final ClassValue<Integer> TYPE_INDEX = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return NEXT_TYPE_INDEX.getAndIncrement();
+        }
+    };
+    // the indices of a property class and of all its superclasses and interfaces
+    private static final ClassValue<int[]> TYPE_CLOSURE = new ClassValue<>() {
+        @Override
+        protected int[] computeValue(Class<?> type) {
+            Set<Class<?>> closure = new LinkedHashSet<>();
+            collectSupertypes(type, closure);
+            return closure.stream().mapToInt(TYPE_INDEX::get).toArray();
+        }
+    };
+
+    private static final ItemProperty[][] NO_PROPERTIES = new ItemProperty[0][];
+
     protected final String itemName;
     private final List<ItemProperty> properties = new ArrayList<>();
+    // for each type index, the properties of that type in the order they were added
+    private ItemProperty[][] propertiesByType = NO_PROPERTIES;
 
     public WynnItemStack(ItemStack stack) {
         super(stack.getItem(), stack.getCount());
@@ -26,6 +53,25 @@ public class WynnItemStack extends ItemStack {
                 ComponentUtils.stripFormatting(super.getHoverName().getString()));
     }
 
+    /** Used by {@link #shallowCopy()}, shares the parsed data and properties of the given stack */
+    protected WynnItemStack(WynnItemStack other) {
+        super(other.getItem(), other.getCount());
+        if (other.getTag() != null) setTag(other.getTag().copy());
+
+        itemName = other.itemName;
+        for (ItemProperty property : other.properties) {
+            property.copyTo(this);
+        }
+    }
+
+    /**
+     * Returns a copy of this stack that shares its parsed data, so it can be handed out again without reparsing.
+     * Subclasses which parse data of their own must override this.
+     */
+    public WynnItemStack shallowCopy() {
+        return new WynnItemStack(this);
+    }
+
     public String getSimpleName() {
         return itemName;
     }
@@ -37,6 +83,21 @@ public class WynnItemStack extends ItemStack {
     public void addProperty(ItemProperty property) {
         if (hasProperty(property.getClass())) return; // don't allow duplicate properties
         this.properties.add(property);
+
+        for (int index : TYPE_CLOSURE.get(property.getClass())) {
+            if (index >= propertiesByType.length) {
+                propertiesByType = Arrays.copyOf(propertiesByType, index + 1);
+            }
+
+            ItemProperty[] ofType = propertiesByType[index];
+            if (ofType == null) {
+                propertiesByType[index] = new ItemProperty[] {property};
+            } else {
+                ofType = Arrays.copyOf(ofType, ofType.length + 1);
+                ofType[ofType.length - 1] = property;
+                propertiesByType[index] = ofType;
+            }
+        }
     }
 
     /**
@@ -44,33 +105,43 @@ public class WynnItemStack extends ItemStack {
      * Otherwise, returns null.
      */
     public <T> T getProperty(Class<T> propertyType) {
-        for (ItemProperty property : properties) {
-            if (propertyType.isAssignableFrom(property.getClass())) return propertyType.cast(property);
-        }
-        return null; // no match
+        ItemProperty[] ofType = getPropertiesOfType(propertyType);
+        return ofType == null ? null : propertyType.cast(ofType[0]);
     }
 
     /**
      * Returns true if the specified property, or a property of the specified type, is present
      */
     public boolean hasProperty(Class<?> propertyType) {
-        // getProperty returns null if no property of the given type is present
-        return (getProperty(propertyType) != null);
+        return getPropertiesOfType(propertyType) != null;
     }
 
     /**
      * Returns all the present properties of the specified type.
      */
     public <T extends PropertyType> List<T> getProperties(Class<T> propertyType) {
-        List<T> collected = new ArrayList<>();
-        for (ItemProperty property : properties) {
-            if (propertyType.isAssignableFrom(property.getClass())) collected.add((T) property);
-        }
-        return collected;
+        ItemProperty[] ofType = getPropertiesOfType(propertyType);
+        if (ofType == null) return List.of();
+
+        return (List<T>) Collections.unmodifiableList(Arrays.asList(ofType));
     }
 
     /**
      * Called when all properties are setup on this stack
      */
     public void init() {}
+
+    private ItemProperty[] getPropertiesOfType(Class<?> propertyType) {
+        int index = TYPE_INDEX.get(propertyType);
+        return index < propertiesByType.length ? propertiesByType[index] : null;
+    }
+
+    private static void collectSupertypes(Class<?> type, Set<Class<?>> closure) {
+        if (type == null || type == Object.class || !closure.add(type)) return;
+
+        collectSupertypes(type.getSuperclass(), closure);
+        for (Class<?> superInterface : type.getInterfaces()) {
+            collectSupertypes(superInterface, closure);
+        }
+    }
 }
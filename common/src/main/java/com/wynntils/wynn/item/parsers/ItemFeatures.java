@@ -0,0 +1,125 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.item.parsers;
+
+import com.wynntils.mc.utils.ComponentUtils;
+import com.wynntils.mc.utils.ItemUtils;
+import com.wynntils.wynn.utils.WynnUtils;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * The features of an item that the {@link WynnItemMatchers} look at, extracted from the stack once.
+ *
+ * The item type and damage value are read eagerly, everything derived from the name or the tooltip is decoded the
+ * first time a matcher asks for it and then reused. Instances are not thread safe and should not outlive the
+ * classification of a single stack.
+ */
+public final class ItemFeatures {
+    private final ItemStack itemStack;
+    private final Item item;
+    private final int damageValue;
+
+    private Component hoverName;
+    private String name;
+    private String codedName;
+    private String normalizedName;
+    private String strippedName;
+    private List<Component> tooltipLines;
+    private List<String> tooltipStrings;
+    private List<String> codedTooltip;
+
+    public ItemFeatures(ItemStack itemStack) {
+        this.itemStack = itemStack;
+        this.item = itemStack.getItem();
+        this.damageValue = itemStack.getDamageValue();
+    }
+
+    public ItemStack getItemStack() {
+        return itemStack;
+    }
+
+    public boolean isEmpty() {
+        return itemStack.isEmpty();
+    }
+
+    public Item getItem() {
+        return item;
+    }
+
+    public int getDamageValue() {
+        return damageValue;
+    }
+
+    public Component getHoverName() {
+        if (hoverName == null) {
+            hoverName = itemStack.getHoverName();
+        }
+        return hoverName;
+    }
+
+    /** The name as returned by {@link Component#getString()}, legacy formatting codes included */
+    public String getName() {
+        if (name == null) {
+            name = getHoverName().getString();
+        }
+        return name;
+    }
+
+    public String getCodedName() {
+        if (codedName == null) {
+            codedName = ComponentUtils.getCoded(getHoverName());
+        }
+        return codedName;
+    }
+
+    /** {@link #getName()} with Wynncraft's bad characters normalized */
+    public String getNormalizedName() {
+        if (normalizedName == null) {
+            normalizedName = WynnUtils.normalizeBadString(getName());
+        }
+        return normalizedName;
+    }
+
+    /** {@link #getNormalizedName()} without any formatting, as used for item list lookups */
+    public String getStrippedName() {
+        if (strippedName == null) {
+            strippedName = WynnUtils.normalizeBadString(ComponentUtils.stripFormatting(getName()));
+        }
+        return strippedName;
+    }
+
+    public List<Component> getTooltipLines() {
+        if (tooltipLines == null) {
+            tooltipLines = ItemUtils.getTooltipLines(itemStack);
+        }
+        return tooltipLines;
+    }
+
+    public List<String> getTooltipStrings() {
+        if (tooltipStrings == null) {
+            List<Component> lines = getTooltipLines();
+            tooltipStrings = new ArrayList<>(lines.size());
+            for (Component line : lines) {
+                tooltipStrings.add(line.getString());
+            }
+        }
+        return tooltipStrings;
+    }
+
+    public List<String> getCodedTooltip() {
+        if (codedTooltip == null) {
+            List<Component> lines = getTooltipLines();
+            codedTooltip = new ArrayList<>(lines.size());
+            for (Component line : lines) {
+                codedTooltip.add(ComponentUtils.getCoded(line));
+            }
+        }
+        return codedTooltip;
+    }
+}
@@ -42,17 +42,23 @@ public final class WynnItemMatchers {
     private static final Pattern INGREDIENT_OR_MATERIAL_PATTERN = Pattern.compile("(.*) \\[✫✫✫\\]");
 
     public static boolean isSoulPoint(ItemStack itemStack) {
-        return !itemStack.isEmpty()
-                && (itemStack.getItem() == Items.NETHER_STAR || itemStack.getItem() == Items.SNOW)
-                && itemStack.getDisplayName().getString().contains("Soul Point");
+        return isSoulPoint(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isSoulPoint(ItemFeatures features) {
+        return !features.isEmpty()
+                && (features.getItem() == Items.NETHER_STAR || features.getItem() == Items.SNOW)
+                && features.getName().contains("Soul Point");
     }
 
     public static boolean isIntelligenceSkillPoints(ItemStack itemStack) {
-        if (itemStack.getItem() != Items.BOOK) return false;
+        return isIntelligenceSkillPoints(new ItemFeatures(itemStack));
+    }
 
-        Component name = itemStack.getHoverName();
-        String unformattedLoreLine = ComponentUtils.getCoded(name);
-        return unformattedLoreLine.equals("§dUpgrade your §b❉ Intelligence§d skill");
+    public static boolean isIntelligenceSkillPoints(ItemFeatures features) {
+        if (features.getItem() != Items.BOOK) return false;
+
+        return features.getCodedName().equals("§dUpgrade your §b❉ Intelligence§d skill");
     }
 
     public static boolean isHealingPotion(ItemStack itemStack) {
@@ -79,26 +85,37 @@ public final class WynnItemMatchers {
     }
 
     public static boolean isConsumable(ItemStack itemStack) {
-        if (itemStack.isEmpty()) return false;
+        return isConsumable(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isConsumable(ItemFeatures features) {
+        if (features.isEmpty()) return false;
 
         // consumables are either a potion or a diamond axe for crafteds
         // to ensure an axe item is really a consumable, make sure it has the right name color
-        if (itemStack.getItem() != Items.POTION
-                && !(itemStack.getItem() == Items.DIAMOND_AXE
-                        && itemStack.getHoverName().getString().startsWith(ChatFormatting.DARK_AQUA.toString())))
-            return false;
+        if (features.getItem() != Items.POTION
+                && !(features.getItem() == Items.DIAMOND_AXE
+                        && features.getName().startsWith(ChatFormatting.DARK_AQUA.toString()))) return false;
 
-        return consumableNameMatcher(itemStack.getHoverName()).matches();
+        return CONSUMABLE_PATTERN.matcher(features.getNormalizedName()).matches();
     }
 
     public static boolean isUnidentified(ItemStack itemStack) {
-        return (itemStack.getItem() == Items.STONE_SHOVEL
-                && itemStack.getDamageValue() >= 1
-                && itemStack.getDamageValue() <= 6);
+        return isUnidentified(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isUnidentified(ItemFeatures features) {
+        return (features.getItem() == Items.STONE_SHOVEL
+                && features.getDamageValue() >= 1
+                && features.getDamageValue() <= 6);
     }
 
     public static boolean isEmeraldPouch(ItemStack itemStack) {
-        return itemStack.getHoverName().getString().startsWith("§aEmerald Pouch§2 [Tier");
+        return isEmeraldPouch(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isEmeraldPouch(ItemFeatures features) {
+        return features.getName().startsWith("§aEmerald Pouch§2 [Tier");
     }
 
     /**
@@ -110,16 +127,23 @@ public final class WynnItemMatchers {
     }
 
     public static boolean isHorse(ItemStack itemStack) {
-        return itemStack.getItem() == Items.SADDLE
-                && itemStack.getHoverName().getString().contains("Horse");
+        return isHorse(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isHorse(ItemFeatures features) {
+        return features.getItem() == Items.SADDLE && features.getName().contains("Horse");
     }
 
     /**
      * Returns true if the passed item is a Wynncraft item (armor, weapon, accessory)
      */
     public static boolean isGear(ItemStack itemStack) {
-        for (Component line : ItemUtils.getTooltipLines(itemStack)) {
-            if (rarityLineMatcher(line).find()) return true;
+        return isGear(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isGear(ItemFeatures features) {
+        for (String line : features.getTooltipStrings()) {
+            if (ITEM_RARITY_PATTERN.matcher(line).find()) return true;
         }
         return false;
     }
@@ -128,33 +152,47 @@ public final class WynnItemMatchers {
      * Determines if a given ItemStack is an instance of a gear item in the API
      */
     public static boolean isKnownGear(ItemStack itemStack) {
-        String name = itemStack.getHoverName().getString();
-        String strippedName = WynnUtils.normalizeBadString(ComponentUtils.stripFormatting(name));
-        if (WebManager.getItemsMap() == null || !WebManager.getItemsMap().containsKey(strippedName)) return false;
-        ItemProfile profile = WebManager.getItemsMap().get(strippedName);
+        return isKnownGear(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isKnownGear(ItemFeatures features) {
+        if (WebManager.getItemsMap() == null) return false;
+        ItemProfile profile = WebManager.getItemsMap().get(features.getStrippedName());
         return (profile != null
-                && name.startsWith(profile.getTier().getChatFormatting().toString()));
+                && features.getName().startsWith(profile.getTier().getChatFormatting().toString()));
     }
 
     public static boolean isCraftedGear(ItemStack itemStack) {
-        String name = itemStack.getHoverName().getString();
+        return isCraftedGear(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isCraftedGear(ItemFeatures features) {
+        String name = features.getName();
         // crafted gear will have a dark aqua name and a % marker for the status of the item
         return (name.startsWith(ChatFormatting.DARK_AQUA.toString()) && name.contains("%"));
     }
 
     public static boolean isMythic(ItemStack itemStack) {
+        return isMythic(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isMythic(ItemFeatures features) {
         // only gear, identified or not, could be a mythic
-        if (!(isUnidentified(itemStack) || isGear(itemStack))) return false;
+        if (!(isUnidentified(features) || isGear(features))) return false;
 
-        return itemStack.getHoverName().getString().contains(ChatFormatting.DARK_PURPLE.toString());
+        return features.getName().contains(ChatFormatting.DARK_PURPLE.toString());
     }
 
     /**
      * Returns true if the passed item has a durability value (crafted items, tools)
      */
     public static boolean isDurabilityItem(ItemStack itemStack) {
-        for (Component line : ItemUtils.getTooltipLines(itemStack)) {
-            if (durabilityLineMatcher(line).find()) return true;
+        return isDurabilityItem(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isDurabilityItem(ItemFeatures features) {
+        for (String line : features.getTooltipStrings()) {
+            if (DURABILITY_PATTERN.matcher(line).find()) return true;
         }
         return false;
     }
@@ -163,75 +201,121 @@ public final class WynnItemMatchers {
      * Returns true if the passed item is within the Wynncraft tier system (mythic, legendary, etc.)
      */
     public static boolean isTieredItem(ItemStack itemStack) {
-        return isGear(itemStack) || isCraftedGear(itemStack) || isUnidentified(itemStack);
+        return isTieredItem(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isTieredItem(ItemFeatures features) {
+        return isUnidentified(features) || isCraftedGear(features) || isGear(features);
     }
 
     public static boolean isCosmetic(ItemStack itemStack) {
-        for (Component c : ItemUtils.getTooltipLines(itemStack)) {
-            if (COSMETIC_PATTERN.matcher(c.getString()).matches()) return true;
+        return isCosmetic(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isCosmetic(ItemFeatures features) {
+        for (String line : features.getTooltipStrings()) {
+            if (COSMETIC_PATTERN.matcher(line).matches()) return true;
         }
         return false;
     }
 
     public static boolean isDailyRewardsChest(ItemStack itemStack) {
-        return itemStack.getHoverName().getString().contains("Daily Reward");
+        return isDailyRewardsChest(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isDailyRewardsChest(ItemFeatures features) {
+        return features.getName().contains("Daily Reward");
     }
 
     public static boolean isPowder(ItemStack itemStack) {
-        return powderNameMatcher(itemStack.getHoverName()).matches();
+        return isPowder(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isPowder(ItemFeatures features) {
+        return POWDER_PATTERN.matcher(features.getNormalizedName()).matches();
     }
 
     public static boolean isProfessionLevel(ItemStack itemStack) {
-        return professionLevelMatcher(itemStack.getHoverName()).matches();
+        return isProfessionLevel(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isProfessionLevel(ItemFeatures features) {
+        return PROFESSION_LEVEL_NAME_PATTERN.matcher(features.getCodedName()).matches();
     }
 
     public static boolean isSkillTyped(ItemStack itemStack) {
-        return skillIconMatcher(itemStack.getHoverName()).matches();
+        return isSkillTyped(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isSkillTyped(ItemFeatures features) {
+        return SKILL_ICON_PATTERN.matcher(features.getCodedName()).matches();
     }
 
     public static boolean isSkillPoint(ItemStack itemStack) {
-        return skillPointNameMatcher(itemStack.getHoverName()).matches();
+        return isSkillPoint(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isSkillPoint(ItemFeatures features) {
+        return SKILL_POINT_NAME_PATTERN.matcher(features.getCodedName()).matches();
     }
 
     public static boolean isTeleportScroll(ItemStack itemStack) {
-        return teleportScrollNameMatcher(itemStack.getHoverName()).matches();
+        return isTeleportScroll(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isTeleportScroll(ItemFeatures features) {
+        return TELEPORT_SCROLL_PATTERN
+                .matcher(WynnUtils.normalizeBadString(features.getCodedName()))
+                .matches();
     }
 
     public static boolean isDungeonKey(ItemStack itemStack) {
-        if (!dungeonKeyNameMatcher(itemStack.getHoverName()).matches()) return false;
+        return isDungeonKey(new ItemFeatures(itemStack));
+    }
 
-        for (Component line : ItemUtils.getTooltipLines(itemStack)) {
+    public static boolean isDungeonKey(ItemFeatures features) {
+        if (!DUNGEON_KEY_PATTERN.matcher(features.getNormalizedName()).matches()) return false;
+
+        for (String line : features.getTooltipStrings()) {
             // check lore to avoid matching misc. key items
-            if (line.getString().contains("Dungeon Info")) return true;
-            if (line.getString().contains("Corrupted Dungeon Key")) return true;
+            if (line.contains("Dungeon Info")) return true;
+            if (line.contains("Corrupted Dungeon Key")) return true;
         }
 
         return false;
     }
 
     public static boolean isAmplifier(ItemStack itemStack) {
-        return amplifierNameMatcher(itemStack.getHoverName()).matches();
+        return isAmplifier(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isAmplifier(ItemFeatures features) {
+        return AMPLIFIER_PATTERN.matcher(features.getNormalizedName()).matches();
     }
 
     public static boolean isIngredient(ItemStack itemStack) {
-        if (!ingredientOrMaterialMatcher(itemStack.getHoverName()).matches()) {
-            return false;
-        }
+        return isIngredient(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isIngredient(ItemFeatures features) {
+        if (!INGREDIENT_OR_MATERIAL_PATTERN.matcher(features.getStrippedName()).matches()) return false;
 
-        for (Component line : ItemUtils.getTooltipLines(itemStack)) {
-            if (ComponentUtils.getCoded(line).contains("§8Crafting Ingredient")) return true;
+        for (String line : features.getCodedTooltip()) {
+            if (line.contains("§8Crafting Ingredient")) return true;
         }
 
         return false;
     }
 
     public static boolean isMaterial(ItemStack itemStack) {
-        if (!ingredientOrMaterialMatcher(itemStack.getHoverName()).matches()) {
-            return false;
-        }
+        return isMaterial(new ItemFeatures(itemStack));
+    }
+
+    public static boolean isMaterial(ItemFeatures features) {
+        if (!INGREDIENT_OR_MATERIAL_PATTERN.matcher(features.getStrippedName()).matches()) return false;
 
-        for (Component line : ItemUtils.getTooltipLines(itemStack)) {
-            if (ComponentUtils.getCoded(line).contains("§7Crafting Material")) return true;
+        for (String line : features.getCodedTooltip()) {
+            if (line.contains("§7Crafting Material")) return true;
         }
 
         return false;
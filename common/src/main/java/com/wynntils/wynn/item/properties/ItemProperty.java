@@ -35,4 +35,12 @@ public abstract class ItemProperty {
         // attach property to the itemstack
         item.addProperty(this);
     }
+
+    /**
+     * Attaches this property to a {@link WynnItemStack#shallowCopy()} of its stack. Properties only read their stack
+     * when constructed, so the same instance is shared by all copies unless it holds state of its own.
+     */
+    public void copyTo(WynnItemStack copy) {
+        copy.addProperty(this);
+    }
 }
@@ -13,6 +13,12 @@ public class SearchOverlayProperty extends ItemProperty {
         super(item);
     }
 
+    @Override
+    public void copyTo(WynnItemStack copy) {
+        // whether a stack is searched is tracked per stack
+        new SearchOverlayProperty(copy);
+    }
+
     public void setSearched(boolean searched) {
         this.searched = searched;
     }
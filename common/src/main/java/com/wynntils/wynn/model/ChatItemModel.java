@@ -13,13 +13,13 @@ import com.wynntils.wynn.item.IdentificationOrderer;
 import com.wynntils.wynn.objects.ItemIdentificationContainer;
 import com.wynntils.wynn.objects.Powder;
 import com.wynntils.wynn.utils.WynnItemUtils;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.stream.Collectors;
 import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.Component;
@@ -27,21 +27,29 @@ import net.minecraft.network.chat.HoverEvent;
 import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.network.chat.Style;
 import net.minecraft.network.chat.TextComponent;
-import org.apache.commons.lang3.ArrayUtils;
 
 public final class ChatItemModel {
     // private-use unicode chars
     private static final String START = new String(Character.toChars(0xF5FF0));
     private static final String END = new String(Character.toChars(0xF5FF1));
     private static final String SEPARATOR = new String(Character.toChars(0xF5FF2));
-    private static final String RANGE =
-            "[" + new String(Character.toChars(0xF5000)) + "-" + new String(Character.toChars(0xF5F00)) + "]";
     private static final int OFFSET = 0xF5000;
+    private static final int RANGE_END = 0xF5F00;
 
     private static final boolean ENCODE_NAME = false;
 
-    private static final Pattern ENCODED_PATTERN = Pattern.compile(START + "(?<Name>.+?)" + SEPARATOR + "(?<Ids>"
-            + RANGE + "*)(?:" + SEPARATOR + "(?<Powders>" + RANGE + "+))?(?<Rerolls>" + RANGE + ")" + END);
+    // trade chat repeats the same few items a lot, so recently decoded ones are kept around
+    private static final int DECODED_CACHE_SIZE = 64;
+    private static final Map<String, GearItemStack> DECODED_ITEMS =
+            new LinkedHashMap<>(DECODED_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, GearItemStack> eldest) {
+                    return size() > DECODED_CACHE_SIZE;
+                }
+            };
+
+    // the order identifications are encoded in, for each item decoded since the last item list reload
+    private static final Map<ItemProfile, IdentificationLayout> ID_LAYOUTS = new WeakHashMap<>();
 
     /**
      * Encodes the given item, as long as it is a standard gear item, into the following format
@@ -133,28 +141,114 @@ public final class ChatItemModel {
         return encoded.toString();
     }
 
-    private static GearItemStack decodeItem(String encoded) {
-        Matcher m = ENCODED_PATTERN.matcher(encoded);
-        if (!m.matches()) return null;
+    /**
+     * Returns all encoded items in the given text, in order. Text without the START character is rejected without
+     * being looked at any further.
+     */
+    public static List<EncodedItem> findEncodedItems(String text) {
+        int start = text.indexOf(START);
+        if (start == -1) return List.of();
+
+        List<EncodedItem> found = new ArrayList<>();
+        while (start != -1) {
+            EncodedItem encodedItem = parseEncodedItem(text, start);
+            if (encodedItem != null) {
+                found.add(encodedItem);
+                start = text.indexOf(START, encodedItem.end());
+            } else {
+                start = text.indexOf(START, start + START.length());
+            }
+        }
+        return found;
+    }
+
+    public static boolean hasEncodedItems(String text) {
+        int start = text.indexOf(START);
+        while (start != -1) {
+            if (parseEncodedItem(text, start) != null) return true;
+
+            start = text.indexOf(START, start + START.length());
+        }
+        return false;
+    }
+
+    /** Drops all decoded items, to be called when the way they are displayed changes */
+    public static synchronized void clearDecodedItems() {
+        DECODED_ITEMS.clear();
+    }
+
+    /** Parses the encoded item starting at the START character at the given index, or returns null if there is none */
+    private static EncodedItem parseEncodedItem(String text, int start) {
+        int nameStart = start + START.length();
+        int nameEnd = text.indexOf(SEPARATOR, nameStart);
+        if (nameEnd <= nameStart) return null; // no separator, or an empty name
+
+        String name = text.substring(nameStart, nameEnd);
+        if (name.indexOf('\n') != -1) return null;
+
+        int idsStart = nameEnd + SEPARATOR.length();
+        int idsEnd = skipEncodedNumbers(text, idsStart);
 
-        String name = ENCODE_NAME ? decodeString(m.group("Name")) : m.group("Name");
-        int[] ids = decodeNumbers(m.group("Ids"));
-        int[] powders = m.group("Powders") != null ? decodeNumbers(m.group("Powders")) : new int[0];
-        int rerolls = decodeNumbers(m.group("Rerolls"))[0];
+        // the rerolls are always the last number before END, with or without powders before them
+        if (text.startsWith(END, idsEnd)) {
+            int[] numbers = decodeNumbers(text, idsStart, idsEnd);
+            if (numbers.length == 0) return null;
+
+            int[] ids = Arrays.copyOf(numbers, numbers.length - 1);
+            int end = idsEnd + END.length();
+            return new EncodedItem(start, end, text.substring(start, end), name, ids, new int[0], numbers[ids.length]);
+        }
+
+        if (!text.startsWith(SEPARATOR, idsEnd)) return null;
+
+        int powdersStart = idsEnd + SEPARATOR.length();
+        int powdersEnd = skipEncodedNumbers(text, powdersStart);
+        if (!text.startsWith(END, powdersEnd)) return null;
+
+        int[] numbers = decodeNumbers(text, powdersStart, powdersEnd);
+        if (numbers.length < 2) return null; // at least one powder and the rerolls
+
+        int[] powders = Arrays.copyOf(numbers, numbers.length - 1);
+        int end = powdersEnd + END.length();
+        return new EncodedItem(
+                start,
+                end,
+                text.substring(start, end),
+                name,
+                decodeNumbers(text, idsStart, idsEnd),
+                powders,
+                numbers[powders.length]);
+    }
+
+    private static GearItemStack decodeItem(EncodedItem encodedItem) {
+        String name = ENCODE_NAME ? decodeString(encodedItem.name()) : encodedItem.name();
 
         ItemProfile item =
                 WebManager.getItemsMap() != null ? WebManager.getItemsMap().get(name) : null;
         if (item == null) return null;
 
+        synchronized (ChatItemModel.class) {
+            GearItemStack cached = DECODED_ITEMS.get(encodedItem.encoded());
+            // items decoded before an item list reload are decoded again against the new profile
+            if (cached != null && cached.getItemProfile() == item) return cached;
+        }
+
+        GearItemStack decoded = decodeItem(item, encodedItem.ids(), encodedItem.powders(), encodedItem.rerolls());
+        if (decoded != null) {
+            synchronized (ChatItemModel.class) {
+                DECODED_ITEMS.put(encodedItem.encoded(), decoded);
+            }
+        }
+        return decoded;
+    }
+
+    private static GearItemStack decodeItem(ItemProfile item, int[] ids, int[] powders, int rerolls) {
         // ids
         List<ItemIdentificationContainer> idContainers = new ArrayList<>();
 
-        List<String> sortedIds = new ArrayList<>(item.getStatuses().keySet());
-        sortedIds.sort(Comparator.comparingInt(IdentificationOrderer.INSTANCE::getOrder));
-
         int counter = 0; // for id value array
-        for (String shortIdName : sortedIds) {
-            IdentificationProfile status = item.getStatuses().get(shortIdName);
+        for (IdentificationSlot slot : getIdentificationLayout(item)) {
+            IdentificationProfile status = slot.status();
 
             int value;
             int stars = 0;
@@ -166,12 +260,7 @@ public final class ChatItemModel {
                 // id value
                 int encodedValue = ids[counter] / 4;
                 if (Math.abs(status.getBaseValue()) > 100) {
-                    // using bigdecimal here for precision when rounding
-                    value = new BigDecimal(encodedValue + 30)
-                            .movePointLeft(2)
-                            .multiply(new BigDecimal(status.getBaseValue()))
-                            .setScale(0, RoundingMode.HALF_UP)
-                            .intValue();
+                    value = roundPercentOf(encodedValue + 30, status.getBaseValue());
                 } else {
                     value = encodedValue + status.getMin();
                 }
@@ -182,20 +271,18 @@ public final class ChatItemModel {
                 counter++;
             }
 
-            // name
-            String longIdName = IdentificationProfile.getAsLongName(shortIdName);
-
             // create ID and append to list
-            ItemIdentificationContainer idContainer =
-                    WynnItemUtils.identificationFromValue(null, item, longIdName, shortIdName, value, stars);
+            ItemIdentificationContainer idContainer = WynnItemUtils.identificationFromValue(
+                    item, slot.longIdName(), slot.shortIdName(), value, stars);
             if (idContainer != null) idContainers.add(idContainer);
         }
 
         // powders
         List<Powder> powderList = new ArrayList<>();
         if (item.getPowderAmount() > 0 && powders.length > 0) {
-            ArrayUtils.reverse(powders); // must reverse powders so they are read in reverse order
-            for (int powderNum : powders) {
+            // powders must be read in reverse order
+            for (int i = powders.length - 1; i >= 0; i--) {
+                int powderNum = powders[i];
                 // once powderNum is 0, all the powders have been read
                 while (powderNum > 0) {
                     Powder p = Powder.values()[powderNum % 6 - 1];
@@ -210,13 +297,9 @@ public final class ChatItemModel {
         return new GearItemStack(item, idContainers, powderList, rerolls);
     }
 
-    public static Matcher chatItemMatcher(String text) {
-        return ENCODED_PATTERN.matcher(text);
-    }
-
     public static Component insertItemComponents(Component message) {
         // no item tooltips to insert
-        if (!ENCODED_PATTERN.matcher(message.getString()).find()) return message;
+        if (!hasEncodedItems(message.getString())) return message;
 
         List<MutableComponent> components =
                 message.getSiblings().stream().map(Component::copy).collect(Collectors.toList());
@@ -225,24 +308,15 @@ public final class ChatItemModel {
         MutableComponent temp = new TextComponent("");
 
         for (Component comp : components) {
-            Matcher m = ENCODED_PATTERN.matcher(comp.getString());
-            if (!m.find()) {
-                Component newComponent = comp.copy();
-                temp.append(newComponent);
-                continue;
-            }
-
-            do {
-                String text = comp.getString();
-                Style style = comp.getStyle();
+            String text = comp.getString();
+            Style style = comp.getStyle();
 
-                GearItemStack item = decodeItem(m.group());
-                if (item == null) { // couldn't decode, skip
-                    comp = comp.copy();
-                    continue;
-                }
+            int textStart = 0;
+            for (EncodedItem encodedItem : findEncodedItems(text)) {
+                GearItemStack item = decodeItem(encodedItem);
+                if (item == null) continue; // couldn't decode, leave it in the text
 
-                MutableComponent preText = new TextComponent(text.substring(0, m.start()));
+                MutableComponent preText = new TextComponent(text.substring(textStart, encodedItem.start()));
                 preText.withStyle(style);
                 temp.append(preText);
 
@@ -250,11 +324,14 @@ public final class ChatItemModel {
                 Component itemComponent = createItemComponent(item);
                 temp.append(itemComponent);
 
-                comp = new TextComponent(text.substring(m.end())).withStyle(style);
-                m = ENCODED_PATTERN.matcher(comp.getString()); // recreate matcher for new substring
-            } while (m.find()); // search for multiple items in the same message
+                textStart = encodedItem.end();
+            }
 
-            temp.append(comp); // leftover text after item(s)
+            if (textStart == 0) {
+                temp.append(comp.copy()); // nothing could be decoded
+            } else {
+                temp.append(new TextComponent(text.substring(textStart)).withStyle(style)); // leftover text
+            }
         }
 
         return temp;
@@ -294,11 +371,54 @@ public final class ChatItemModel {
         return decoded.toString();
     }
 
-    private static int[] decodeNumbers(String text) {
-        int[] decoded = new int[text.length() / 2];
-        for (int i = 0; i < text.length(); i += 2) {
-            decoded[i / 2] = text.codePointAt(i) - OFFSET;
+    private static int skipEncodedNumbers(String text, int index) {
+        while (index < text.length()) {
+            int codePoint = text.codePointAt(index);
+            if (codePoint < OFFSET || codePoint > RANGE_END) break;
+
+            index += Character.charCount(codePoint);
+        }
+        return index;
+    }
+
+    /** Decodes the numbers between the given indices, which must all be encoded numbers */
+    private static int[] decodeNumbers(String text, int from, int to) {
+        // every encoded number is a supplementary character, so two chars long
+        int[] decoded = new int[(to - from) / 2];
+        for (int i = 0; i < decoded.length; i++) {
+            decoded[i] = text.codePointAt(from + i * 2) - OFFSET;
         }
         return decoded;
     }
+
+    /** Returns percent% of value, rounded half away from zero */
+    private static int roundPercentOf(int percent, int value) {
+        long scaled = (long) percent * value;
+        long rounded = scaled / 100;
+        if (Math.abs(scaled % 100) >= 50) {
+            rounded += Long.signum(scaled);
+        }
+        return (int) rounded;
+    }
+
+    private static synchronized List<IdentificationSlot> getIdentificationLayout(ItemProfile item) {
+        IdentificationLayout layout = ID_LAYOUTS.get(item);
+        if (layout != null && layout.orderer() == IdentificationOrderer.INSTANCE) return layout.slots();
+
+        List<IdentificationSlot> slots = item.getStatuses().entrySet().stream()
+                .sorted(Comparator.comparingInt(e -> IdentificationOrderer.INSTANCE.getOrder(e.getKey())))
+                .map(e -> new IdentificationSlot(
+                        e.getKey(), IdentificationProfile.getAsLongName(e.getKey()), e.getValue()))
+                .toList();
+        ID_LAYOUTS.put(item, new IdentificationLayout(IdentificationOrderer.INSTANCE, slots));
+        return slots;
+    }
+
+    /** An encoded item found at the given indices of a text, with its numbers already decoded */
+    public record EncodedItem(
+            int start, int end, String encoded, String name, int[] ids, int[] powders, int rerolls) {}
+
+    private record IdentificationLayout(IdentificationOrderer orderer, List<IdentificationSlot> slots) {}
+
+    private record IdentificationSlot(String shortIdName, String longIdName, IdentificationProfile status) {}
 }
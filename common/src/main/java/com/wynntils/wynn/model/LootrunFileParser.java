@@ -0,0 +1,366 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.model;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Reads and writes lootrun files.
+ *
+ * <p>Two formats are supported: the legacy JSON schema, which is read with a streaming {@link JsonReader}
+ * instead of a full JSON tree, and a compact binary format. The binary format stores points, chests and notes
+ * as packed columns and is read in one go into a {@link ByteBuffer}.
+ *
+ * <p>Binary layout (big endian):
+ * <pre>
+ * int    magic ("WLR1")
+ * string date
+ * int    pointCount, double[pointCount] x, double[pointCount] y, double[pointCount] z
+ * int    chestCount, int[chestCount] x, int[chestCount] y, int[chestCount] z
+ * int    noteCount, double[noteCount] x, double[noteCount] y, double[noteCount] z, string[noteCount] note json
+ * </pre>
+ * Strings are stored as an int byte length followed by UTF-8 bytes. Point coordinates are kept as doubles so
+ * conversion to and from JSON is lossless.
+ */
+final class LootrunFileParser {
+    static final String JSON_EXTENSION = ".json";
+    static final String BINARY_EXTENSION = ".wlr";
+
+    private static final int MAGIC = 0x574C5231; // "WLR1"
+    private static final Gson GSON = new Gson();
+
+    private LootrunFileParser() {}
+
+    static ParsedLootrun read(File file) throws IOException {
+        if (file.getName().endsWith(BINARY_EXTENSION)) {
+            return readBinary(file);
+        }
+
+        return readJson(file);
+    }
+
+    static void write(ParsedLootrun lootrun, File file) throws IOException {
+        if (file.getName().endsWith(BINARY_EXTENSION)) {
+            writeBinary(lootrun, file);
+        } else {
+            writeJson(lootrun, file);
+        }
+    }
+
+    static ParsedLootrun readBinary(File file) throws IOException {
+        // read fully rather than mapped, a mapping outlives the read and keeps the file locked on some platforms
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("File " + file + " is not a binary lootrun");
+            }
+
+            String date = readString(buffer);
+
+            int pointCount = readCount(buffer, 3 * Double.BYTES);
+            int pointBase = buffer.position();
+            List<Vec3> points = new ArrayList<>(pointCount);
+            for (int i = 0; i < pointCount; i++) {
+                points.add(new Vec3(
+                        buffer.getDouble(pointBase + i * Double.BYTES),
+                        buffer.getDouble(pointBase + (pointCount + i) * Double.BYTES),
+                        buffer.getDouble(pointBase + (2 * pointCount + i) * Double.BYTES)));
+            }
+            buffer.position(pointBase + 3 * pointCount * Double.BYTES);
+
+            int chestCount = readCount(buffer, 3 * Integer.BYTES);
+            int chestBase = buffer.position();
+            Set<BlockPos> chests = new HashSet<>();
+            Long2ObjectMap<Set<BlockPos>> chestsByChunk = new Long2ObjectOpenHashMap<>();
+            for (int i = 0; i < chestCount; i++) {
+                BlockPos pos = new BlockPos(
+                        buffer.getInt(chestBase + i * Integer.BYTES),
+                        buffer.getInt(chestBase + (chestCount + i) * Integer.BYTES),
+                        buffer.getInt(chestBase + (2 * chestCount + i) * Integer.BYTES));
+                chests.add(pos);
+                addChest(chestsByChunk, pos);
+            }
+            buffer.position(chestBase + 3 * chestCount * Integer.BYTES);
+
+            int noteCount = readCount(buffer, 3 * Double.BYTES);
+            int noteBase = buffer.position();
+            buffer.position(noteBase + 3 * noteCount * Double.BYTES);
+            List<LootrunModel.Note> notes = new ArrayList<>(noteCount);
+            Long2ObjectMap<List<LootrunModel.Note>> notesByChunk = new Long2ObjectOpenHashMap<>();
+            for (int i = 0; i < noteCount; i++) {
+                Vec3 position = new Vec3(
+                        buffer.getDouble(noteBase + i * Double.BYTES),
+                        buffer.getDouble(noteBase + (noteCount + i) * Double.BYTES),
+                        buffer.getDouble(noteBase + (2 * noteCount + i) * Double.BYTES));
+                Component component = Component.Serializer.fromJson(readString(buffer));
+                LootrunModel.Note note = new LootrunModel.Note(position, component);
+                notes.add(note);
+                addNote(notesByChunk, note);
+            }
+
+            return new ParsedLootrun(
+                    new LootrunModel.LootrunUncompiled(new LootrunModel.Path(points), chests, notes, file),
+                    chestsByChunk,
+                    notesByChunk,
+                    date);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Binary lootrun " + file + " is truncated", e);
+        }
+    }
+
+    static void writeBinary(ParsedLootrun lootrun, File file) throws IOException {
+        LootrunModel.LootrunUncompiled uncompiled = lootrun.uncompiled();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            writeString(out, lootrun.date());
+
+            List<Vec3> points = uncompiled.path().points();
+            out.writeInt(points.size());
+            for (Vec3 point : points) out.writeDouble(point.x);
+            for (Vec3 point : points) out.writeDouble(point.y);
+            for (Vec3 point : points) out.writeDouble(point.z);
+
+            List<BlockPos> chests = new ArrayList<>(uncompiled.chests());
+            out.writeInt(chests.size());
+            for (BlockPos chest : chests) out.writeInt(chest.getX());
+            for (BlockPos chest : chests) out.writeInt(chest.getY());
+            for (BlockPos chest : chests) out.writeInt(chest.getZ());
+
+            List<LootrunModel.Note> notes = uncompiled.notes();
+            out.writeInt(notes.size());
+            for (LootrunModel.Note note : notes) out.writeDouble(note.position().x);
+            for (LootrunModel.Note note : notes) out.writeDouble(note.position().y);
+            for (LootrunModel.Note note : notes) out.writeDouble(note.position().z);
+            for (LootrunModel.Note note : notes) writeString(out, Component.Serializer.toJson(note.component()));
+        }
+    }
+
+    static ParsedLootrun readJson(File file) throws IOException {
+        List<Vec3> points = new ArrayList<>();
+        Set<BlockPos> chests = new HashSet<>();
+        List<LootrunModel.Note> notes = new ArrayList<>();
+        Long2ObjectMap<Set<BlockPos>> chestsByChunk = new Long2ObjectOpenHashMap<>();
+        Long2ObjectMap<List<LootrunModel.Note>> notesByChunk = new Long2ObjectOpenHashMap<>();
+        String date = null;
+
+        try (JsonReader reader = new JsonReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "points" -> {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            points.add(readVec3(reader));
+                        }
+                        reader.endArray();
+                    }
+                    case "chests" -> {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            BlockPos pos = new BlockPos(readVec3(reader));
+                            chests.add(pos);
+                            addChest(chestsByChunk, pos);
+                        }
+                        reader.endArray();
+                    }
+                    case "notes" -> {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            LootrunModel.Note note = readNote(reader);
+                            if (note == null) continue;
+
+                            notes.add(note);
+                            addNote(notesByChunk, note);
+                        }
+                        reader.endArray();
+                    }
+                    case "date" -> {
+                        if (reader.peek() == JsonToken.STRING) {
+                            date = reader.nextString();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed lootrun " + file, e);
+        }
+
+        return new ParsedLootrun(
+                new LootrunModel.LootrunUncompiled(new LootrunModel.Path(points), chests, notes, file),
+                chestsByChunk,
+                notesByChunk,
+                date);
+    }
+
+    static void writeJson(ParsedLootrun lootrun, File file) throws IOException {
+        LootrunModel.LootrunUncompiled uncompiled = lootrun.uncompiled();
+
+        try (JsonWriter writer = new JsonWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
+            writer.setIndent("  ");
+            writer.beginObject();
+
+            writer.name("points").beginArray();
+            for (Vec3 point : uncompiled.path().points()) {
+                writeVec3(writer, point.x, point.y, point.z);
+            }
+            writer.endArray();
+
+            writer.name("chests").beginArray();
+            for (BlockPos chest : uncompiled.chests()) {
+                writer.beginObject();
+                writer.name("x").value(chest.getX());
+                writer.name("y").value(chest.getY());
+                writer.name("z").value(chest.getZ());
+                writer.endObject();
+            }
+            writer.endArray();
+
+            writer.name("notes").beginArray();
+            for (LootrunModel.Note note : uncompiled.notes()) {
+                writer.beginObject();
+                writer.name("position");
+                writeVec3(writer, note.position().x, note.position().y, note.position().z);
+                writer.name("note");
+                GSON.toJson(Component.Serializer.toJsonTree(note.component()), writer);
+                writer.endObject();
+            }
+            writer.endArray();
+
+            if (lootrun.date() != null) {
+                writer.name("date").value(lootrun.date());
+            }
+
+            writer.endObject();
+        }
+    }
+
+    private static LootrunModel.Note readNote(JsonReader reader) throws IOException {
+        Vec3 position = null;
+        Component component = null;
+
+        // Older versions read the position from "location", so accept both keys
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "position", "location" -> position = readVec3(reader);
+                case "note" -> component = Component.Serializer.fromJson(JsonParser.parseReader(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (position == null || component == null) return null;
+
+        return new LootrunModel.Note(position, component);
+    }
+
+    private static Vec3 readVec3(JsonReader reader) throws IOException {
+        double x = 0;
+        double y = 0;
+        double z = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "x" -> x = reader.nextDouble();
+                case "y" -> y = reader.nextDouble();
+                case "z" -> z = reader.nextDouble();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new Vec3(x, y, z);
+    }
+
+    private static void writeVec3(JsonWriter writer, double x, double y, double z) throws IOException {
+        writer.beginObject();
+        writer.name("x").value(x);
+        writer.name("y").value(y);
+        writer.name("z").value(z);
+        writer.endObject();
+    }
+
+    /** Reads the count of a section, checking it fits in the rest of the buffer before anything is allocated */
+    private static int readCount(ByteBuffer buffer, int bytesPerElement) {
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * bytesPerElement > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        return count;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        if (length > buffer.remaining()) throw new BufferUnderflowException();
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void addChest(Long2ObjectMap<Set<BlockPos>> chestsByChunk, BlockPos pos) {
+        chestsByChunk
+                .computeIfAbsent(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4), (chunk) -> new HashSet<>())
+                .add(pos);
+    }
+
+    private static void addNote(Long2ObjectMap<List<LootrunModel.Note>> notesByChunk, LootrunModel.Note note) {
+        long chunk = ChunkPos.asLong(Mth.floor(note.position().x) >> 4, Mth.floor(note.position().z) >> 4);
+        notesByChunk.computeIfAbsent(chunk, (chunkPos) -> new ArrayList<>()).add(note);
+    }
+
+    /** A lootrun as read from disk, with chests and notes already sorted into their chunks */
+    record ParsedLootrun(
+            LootrunModel.LootrunUncompiled uncompiled,
+            Long2ObjectMap<Set<BlockPos>> chests,
+            Long2ObjectMap<List<LootrunModel.Note>> notes,
+            String date) {}
+}
@@ -4,25 +4,27 @@
  */
 package com.wynntils.wynn.model;
 
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
 import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexBuffer;
 import com.mojang.blaze3d.vertex.VertexConsumer;
+import com.mojang.blaze3d.vertex.VertexFormat;
 import com.mojang.math.Matrix4f;
 import com.wynntils.core.WynntilsMod;
 import com.wynntils.features.alwayson.LootrunFeature;
 import com.wynntils.gui.render.CustomRenderType;
 import com.wynntils.mc.utils.McUtils;
+import com.wynntils.utils.Pair;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.util.ArrayList;
 import java.util.Date;
@@ -30,7 +32,15 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Camera;
 import net.minecraft.client.gui.Font;
@@ -39,7 +49,9 @@ import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.client.renderer.LevelRenderer;
 import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.ShaderInstance;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.network.chat.Component;
 import net.minecraft.util.CubicSpline;
 import net.minecraft.util.FastColor;
@@ -74,6 +86,20 @@ public final class LootrunModel {
 
     private static RecordingInformation recordingInformation = null;
 
+    private static final ExecutorService COMPILE_EXECUTOR = Executors.newFixedThreadPool(
+            2,
+            new ThreadFactoryBuilder()
+                    .setNameFormat("wynntils-lootrun-compiler-%d")
+                    .setDaemon(true)
+                    .build());
+    private static LootrunCompilation compilation = null;
+    private static LootrunCompilation recordingCompilation = null;
+    private static IncrementalCompiler recordingCompiler = null;
+
+    // Chunk -> block position -> validness of that single block, see checkBlockValidness
+    private static final Long2ObjectMap<Long2ObjectMap<BlockValidness>> blockValidnessCache =
+            new Long2ObjectOpenHashMap<>();
+
     public static LootrunState getState() {
         return state;
     }
@@ -86,12 +112,17 @@ public final class LootrunModel {
         LootrunFeature.INSTANCE.tryDisable();
     }
 
-    public static void render(PoseStack poseStack) {
-        renderLootrun(poseStack, lootrun, LootrunFeature.INSTANCE.activePathColour.asInt());
-        renderLootrun(poseStack, recordingCompiled, LootrunFeature.INSTANCE.recordingPathColour.asInt());
+    public static void render(PoseStack poseStack, Matrix4f projectionMatrix) {
+        renderLootrun(poseStack, projectionMatrix, lootrun, LootrunFeature.INSTANCE.activePathColour.asInt());
+        renderLootrun(
+                poseStack,
+                projectionMatrix,
+                recordingCompiled,
+                LootrunFeature.INSTANCE.recordingPathColour.asInt());
     }
 
-    private static void renderLootrun(PoseStack poseStack, LootrunInstance lootrun, int color) {
+    private static void renderLootrun(
+            PoseStack poseStack, Matrix4f projectionMatrix, LootrunInstance lootrun, int color) {
         if (lootrun == null) {
             return;
         }
@@ -114,19 +145,22 @@ public final class LootrunModel {
         BlockPos pos = camera.getBlockPosition();
         ChunkPos origin = new ChunkPos(pos);
 
+        RenderType pathRenderType = CustomRenderType.LOOTRUN_LINE;
+        pathRenderType.setupRenderState();
+        ShaderInstance pathShader = RenderSystem.getShader();
+
         for (int i = 0; i <= renderDistance; i++) {
             for (int j = 0; j <= renderDistance; j++) {
                 int x = j + origin.x - (renderDistance / 2);
                 int z = i + origin.z - (renderDistance / 2);
-                ChunkPos chunk = new ChunkPos(x, z);
-                if (!level.hasChunk(chunk.x, chunk.z)) {
+                if (!level.hasChunk(x, z)) {
                     continue;
                 }
 
-                long chunkLong = chunk.toLong();
+                long chunkLong = ChunkPos.asLong(x, z);
 
                 if (points.containsKey(chunkLong)) {
-                    renderPoints(poseStack, source, points, chunkLong);
+                    renderPoints(poseStack, projectionMatrix, pathShader, lootrun, level, x, z);
                 }
 
                 if (lootrun.chests().containsKey(chunkLong)) {
@@ -139,6 +173,11 @@ public final class LootrunModel {
             }
         }
 
+        VertexBuffer.unbind();
+        pathRenderType.clearRenderState();
+
+        source.endBatch();
+
         poseStack.popPose();
     }
 
@@ -182,35 +221,44 @@ public final class LootrunModel {
         for (BlockPos chest : chests) {
             LevelRenderer.renderLineBox(poseStack, consumer, new AABB(chest), red, green, blue, 1f);
         }
-
-        source.endBatch();
     }
 
     private static void renderPoints(
             PoseStack poseStack,
-            MultiBufferSource.BufferSource source,
-            Long2ObjectMap<List<ColoredPath>> points,
-            long chunkLong) {
-        List<ColoredPath> locations = points.get(chunkLong);
+            Matrix4f projectionMatrix,
+            ShaderInstance shader,
+            LootrunInstance lootrun,
+            Level level,
+            int chunkX,
+            int chunkZ) {
+        long chunkLong = ChunkPos.asLong(chunkX, chunkZ);
+        Long2ObjectMap<VertexBuffer> pathBuffers = lootrun.pathBuffers();
 
-        Level level = McUtils.mc().level;
-        if (level == null) return;
+        if (!pathBuffers.containsKey(chunkLong)) {
+            pathBuffers.put(chunkLong, buildPathBuffer(lootrun.points().get(chunkLong), level, chunkX, chunkZ));
+        }
 
-        renderNonTexturedLootrunPoints(poseStack, source, locations, level, CustomRenderType.LOOTRUN_LINE);
+        VertexBuffer buffer = pathBuffers.get(chunkLong);
+        if (buffer == null) return;
+
+        poseStack.pushPose();
+        poseStack.translate(SectionPos.sectionToBlockCoord(chunkX), 0, SectionPos.sectionToBlockCoord(chunkZ));
+        buffer.drawWithShader(poseStack.last().pose(), projectionMatrix, shader);
+        poseStack.popPose();
     }
 
-    private static void renderNonTexturedLootrunPoints(
-            PoseStack poseStack,
-            MultiBufferSource.BufferSource source,
-            List<ColoredPath> locations,
-            Level level,
-            RenderType renderType) {
-        for (ColoredPath locationsInRoute : locations) {
-            VertexConsumer consumer = source.getBuffer(renderType);
-            Matrix4f lastMatrix = poseStack.last().pose();
-            boolean sourceBatchEnded = false;
+    /**
+     * Bakes the paths of a chunk into a vertex buffer, relative to the chunk origin. Paths are stored as separate
+     * line segments, so that every path of a chunk can be drawn in a single draw call.
+     *
+     * @return the uploaded buffer, or null if there is nothing to draw in this chunk
+     */
+    private static VertexBuffer buildPathBuffer(List<ColoredPath> locations, Level level, int chunkX, int chunkZ) {
+        List<ColoredPoint> segments = new ArrayList<>();
 
-            ColoredPath toRender = new ColoredPath(new ArrayList<>());
+        for (ColoredPath locationsInRoute : locations) {
+            List<ColoredPoint> queued = new ArrayList<>();
+            ColoredPoint previous = null;
 
             boolean pauseDraw = false;
             BlockPos lastBlockPos = null;
@@ -219,26 +267,26 @@ public final class LootrunModel {
                 BlockPos blockPos = new BlockPos(point.vec3());
 
                 if (blockPos.equals(lastBlockPos)) { // Do not recalculate block validness
-                    if (!toRender.points().isEmpty()) {
-                        toRender.points().add(point);
+                    if (!queued.isEmpty()) {
+                        queued.add(point);
+                        continue;
                     }
                 } else {
                     BlockValidness blockValidness = checkBlockValidness(level, point);
 
                     if (blockValidness == BlockValidness.VALID) {
                         pauseDraw = false;
-                        if (sourceBatchEnded) {
-                            consumer = source.getBuffer(renderType);
-                            sourceBatchEnded = false;
+                        for (ColoredPoint queuedPoint : queued) {
+                            previous = addSegment(segments, previous, queuedPoint);
                         }
-                        renderQueuedPoints(consumer, lastMatrix, toRender);
-                        toRender.points().clear();
+                        queued.clear();
                     } else if (blockValidness == BlockValidness.HAS_BARRIER) {
                         pauseDraw = true;
-                        toRender.points().clear();
+                        previous = null;
+                        queued.clear();
                     } else {
                         pauseDraw = false;
-                        toRender.points().add(point);
+                        queued.add(point);
                         continue;
                     }
                 }
@@ -246,32 +294,46 @@ public final class LootrunModel {
                 lastBlockPos = blockPos;
 
                 if (!pauseDraw) {
-                    renderPoint(consumer, lastMatrix, point);
-                } else if (!sourceBatchEnded) {
-                    source.endBatch();
-                    sourceBatchEnded = true;
+                    previous = addSegment(segments, previous, point);
                 }
             }
-            if (!sourceBatchEnded) {
-                renderQueuedPoints(consumer, lastMatrix, toRender);
-                source.endBatch();
+
+            if (!pauseDraw) {
+                for (ColoredPoint queuedPoint : queued) {
+                    previous = addSegment(segments, previous, queuedPoint);
+                }
             }
         }
-    }
 
-    private static void renderQueuedPoints(VertexConsumer consumer, Matrix4f lastMatrix, ColoredPath toRender) {
-        for (ColoredPoint location : toRender.points()) {
-            renderPoint(consumer, lastMatrix, location);
+        if (segments.isEmpty()) return null;
+
+        double originX = SectionPos.sectionToBlockCoord(chunkX);
+        double originZ = SectionPos.sectionToBlockCoord(chunkZ);
+
+        BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
+        bufferBuilder.begin(VertexFormat.Mode.LINES, DefaultVertexFormat.POSITION_COLOR_NORMAL);
+        for (ColoredPoint point : segments) {
+            Vec3 location = point.vec3();
+            bufferBuilder
+                    .vertex(location.x - originX, location.y, location.z - originZ)
+                    .color(point.color())
+                    .normal(0, 0, 1)
+                    .endVertex();
         }
+        bufferBuilder.end();
+
+        VertexBuffer buffer = new VertexBuffer();
+        buffer.upload(bufferBuilder);
+        return buffer;
     }
 
-    private static void renderPoint(VertexConsumer consumer, Matrix4f lastMatrix, ColoredPoint location) {
-        Vec3 rawLocation = location.vec3();
-        int pathColor = location.color();
-        consumer.vertex(lastMatrix, (float) rawLocation.x, (float) rawLocation.y, (float) rawLocation.z)
-                .color(pathColor)
-                .normal(0, 0, 1)
-                .endVertex();
+    private static ColoredPoint addSegment(List<ColoredPoint> segments, ColoredPoint previous, ColoredPoint point) {
+        if (previous != null) {
+            segments.add(previous);
+            segments.add(point);
+        }
+
+        return point;
     }
 
     private static BlockValidness checkBlockValidness(Level level, ColoredPoint point) {
@@ -279,10 +341,10 @@ public final class LootrunModel {
         Iterable<BlockPos> blocks = getBlocksForPoint(point);
 
         for (BlockPos blockInArea : blocks) {
-            BlockState blockStateInArea = level.getBlockState(blockInArea);
-            if (blockStateInArea.is(Blocks.BARRIER)) {
+            BlockValidness blockValidness = getCachedBlockValidness(level, blockInArea);
+            if (blockValidness == BlockValidness.HAS_BARRIER) {
                 state = BlockValidness.HAS_BARRIER;
-            } else if (blockStateInArea.getCollisionShape(level, blockInArea) != null) {
+            } else if (blockValidness == BlockValidness.VALID) {
                 state = BlockValidness.VALID;
                 return state;
             }
@@ -291,6 +353,73 @@ public final class LootrunModel {
         return state;
     }
 
+    private static BlockValidness getCachedBlockValidness(Level level, BlockPos pos) {
+        Long2ObjectMap<BlockValidness> chunkCache =
+                blockValidnessCache.computeIfAbsent(ChunkPos.asLong(pos), (chunk) -> new Long2ObjectOpenHashMap<>());
+
+        long posLong = pos.asLong();
+        BlockValidness blockValidness = chunkCache.get(posLong);
+        if (blockValidness == null) {
+            blockValidness = getBlockValidness(level, pos, level.getBlockState(pos));
+            chunkCache.put(posLong, blockValidness);
+        }
+
+        return blockValidness;
+    }
+
+    private static BlockValidness getBlockValidness(Level level, BlockPos pos, BlockState blockState) {
+        if (blockState.is(Blocks.BARRIER)) {
+            return BlockValidness.HAS_BARRIER;
+        } else if (blockState.getCollisionShape(level, pos) != null) {
+            return BlockValidness.VALID;
+        }
+
+        return BlockValidness.INVALID;
+    }
+
+    /** Drops everything that was derived from the blocks of a chunk, as it was loaded or unloaded */
+    public static void onChunkChanged(ChunkPos chunkPos) {
+        long chunkLong = chunkPos.toLong();
+        blockValidnessCache.remove(chunkLong);
+        invalidatePathBuffers(chunkLong);
+    }
+
+    public static void onBlockUpdated(BlockPos pos, BlockState newState) {
+        Level level = McUtils.mc().level;
+        if (level == null) return;
+
+        Long2ObjectMap<BlockValidness> chunkCache = blockValidnessCache.get(ChunkPos.asLong(pos));
+        if (chunkCache == null) return;
+
+        long posLong = pos.asLong();
+        BlockValidness oldValidness = chunkCache.get(posLong);
+        // Blocks that were never looked up are not part of any baked path
+        if (oldValidness == null) return;
+
+        BlockValidness newValidness = getBlockValidness(level, pos, newState);
+        if (oldValidness == newValidness) return;
+
+        chunkCache.put(posLong, newValidness);
+
+        // Points look at blocks up to one block away, so paths in neighbouring chunks may depend on this block
+        for (int dx = -1; dx <= 1; dx += 2) {
+            for (int dz = -1; dz <= 1; dz += 2) {
+                invalidatePathBuffers(ChunkPos.asLong(
+                        SectionPos.blockToSectionCoord(pos.getX() + dx),
+                        SectionPos.blockToSectionCoord(pos.getZ() + dz)));
+            }
+        }
+    }
+
+    private static void invalidatePathBuffers(long chunkLong) {
+        if (lootrun != null) {
+            lootrun.invalidatePathBuffer(chunkLong);
+        }
+        if (recordingCompiled != null) {
+            recordingCompiled.invalidatePathBuffer(chunkLong);
+        }
+    }
+
     private static Iterable<BlockPos> getBlocksForPoint(ColoredPoint loc) {
         BlockPos minPos = new BlockPos(loc.vec3().x - 0.3D, loc.vec3().y - 1D, loc.vec3().z - 0.3D);
         BlockPos maxPos = new BlockPos(loc.vec3().x + 0.3D, loc.vec3().y - 1D, loc.vec3().z + 0.3D);
@@ -321,7 +450,7 @@ public final class LootrunModel {
         if (recording != null) {
             recordingInformation.setDirty(true);
         } else if (uncompiled != null) {
-            lootrun = compile(uncompiled, false);
+            compileLootrunAsync(uncompiled, null, null);
             if (saveToFile && uncompiled.file() != null) {
                 LootrunSaveResult lootrunSaveResult =
                         trySaveCurrentLootrun(uncompiled.file().getName());
@@ -343,15 +472,131 @@ public final class LootrunModel {
         return 1;
     }
 
-    private static LootrunInstance compile(LootrunUncompiled uncompiled, boolean recording) {
-        Long2ObjectMap<List<ColoredPath>> points = generatePointsByChunk(uncompiled.path(), recording);
-        Long2ObjectMap<Set<BlockPos>> chests = getChests(uncompiled.chests());
-        Long2ObjectMap<List<Note>> notes = getNotes(uncompiled.notes());
+    /**
+     * Compiles the lootrun on the compiler pool and swaps it in as the active lootrun once done. A compilation that
+     * is still running is cancelled.
+     *
+     * @param chests the chests already sorted by chunk, or null to sort them while compiling
+     * @param notes the notes already sorted by chunk, or null to sort them while compiling
+     */
+    private static LootrunCompilation compileLootrunAsync(
+            LootrunUncompiled uncompiled, Long2ObjectMap<Set<BlockPos>> chests, Long2ObjectMap<List<Note>> notes) {
+        if (compilation != null) {
+            compilation.cancel();
+        }
+
+        compilation = submitCompilation(
+                uncompiled,
+                (snapshot, task) -> compile(
+                        snapshot,
+                        chests != null ? chests : getChests(snapshot.chests()),
+                        notes != null ? notes : getNotes(snapshot.notes()),
+                        task),
+                (task, instance) -> {
+                    if (compilation != task) return;
+
+                    compilation = null;
+                    setLootrun(instance);
+                });
+        return compilation;
+    }
+
+    /**
+     * Rebuilds the incremental compiler of the recording from scratch on the compiler pool. Only needed when points
+     * were removed or the path colour changed, new points are appended by {@link #recordMovementIfRecording()}.
+     */
+    private static void compileRecordingAsync() {
+        if (recordingCompilation != null) {
+            recordingCompilation.cancel();
+        }
+
+        int color = LootrunFeature.INSTANCE.recordingPathColour.asInt();
+        recordingCompilation = submitCompilation(
+                recording,
+                (snapshot, task) -> {
+                    IncrementalCompiler compiler = new IncrementalCompiler(
+                            new LootrunInstance(
+                                    new Long2ObjectOpenHashMap<>(),
+                                    getChests(snapshot.chests()),
+                                    getNotes(snapshot.notes()),
+                                    new Long2ObjectOpenHashMap<>()),
+                            color);
+                    compiler.appendPoints(snapshot.path().points(), task);
+                    return compiler;
+                },
+                (task, compiler) -> {
+                    if (recordingCompilation != task) return;
+
+                    recordingCompilation = null;
+                    recordingCompiler = compiler;
+                    // Catch up with the points and chests recorded while compiling
+                    compiler.appendPoints(recording.path().points(), null);
+                    setRecordingCompiled(compiler.getInstance());
+                    refreshRecordingChestsAndNotes();
+                });
+    }
+
+    private static void refreshRecordingChestsAndNotes() {
+        if (recordingCompiled == null) return;
 
-        return new LootrunInstance(points, chests, notes);
+        recordingCompiled.chests().clear();
+        recordingCompiled.chests().putAll(getChests(recording.chests()));
+        recordingCompiled.notes().clear();
+        recordingCompiled.notes().putAll(getNotes(recording.notes()));
     }
 
-    private static List<Path> sample(Path raw, float sampleRate) {
+    private static <T> LootrunCompilation submitCompilation(
+            LootrunUncompiled uncompiled,
+            BiFunction<LootrunUncompiled, LootrunCompilation, T> compiler,
+            BiConsumer<LootrunCompilation, T> onCompiled) {
+        // The recording keeps growing on the client thread, so only let the compiler see a snapshot
+        LootrunUncompiled snapshot = new LootrunUncompiled(
+                new Path(new ArrayList<>(uncompiled.path().points())),
+                new HashSet<>(uncompiled.chests()),
+                new ArrayList<>(uncompiled.notes()),
+                uncompiled.file());
+        LootrunCompilation task = new LootrunCompilation();
+
+        COMPILE_EXECUTOR.execute(() -> {
+            try {
+                T result = compiler.apply(snapshot, task);
+
+                McUtils.mc().execute(() -> {
+                    if (task.isCancelled()) return;
+
+                    onCompiled.accept(task, result);
+                    task.future.complete(null);
+                });
+            } catch (CancellationException ignored) {
+                // Superseded by a newer compilation
+            } catch (RuntimeException e) {
+                WynntilsMod.error("Error when trying to compile lootrun.", e);
+                // like a successful compilation, a failed one is reported on the client thread
+                McUtils.mc().execute(() -> task.future.completeExceptionally(e));
+            }
+        });
+
+        return task;
+    }
+
+    private static LootrunInstance compile(
+            LootrunUncompiled uncompiled,
+            Long2ObjectMap<Set<BlockPos>> chests,
+            Long2ObjectMap<List<Note>> notes,
+            LootrunCompilation task) {
+        Long2ObjectMap<List<ColoredPath>> points = generatePointsByChunk(uncompiled.path(), task);
+
+        return new LootrunInstance(points, chests, notes, new Long2ObjectOpenHashMap<>());
+    }
+
+    /**
+     * Returns the compilation of the loaded lootrun that is still running, if any
+     */
+    public static Optional<LootrunCompilation> getCompilation() {
+        return Optional.ofNullable(compilation);
+    }
+
+    private static List<Path> sample(Path raw, float sampleRate, LootrunCompilation task) {
         List<Path> vec3s = new ArrayList<>();
         Path currentVec3s = new Path(new ArrayList<>());
         vec3s.add(currentVec3s);
@@ -369,7 +614,11 @@ public final class LootrunModel {
         }
 
         List<Path> result = new ArrayList<>();
-        for (Path current : vec3s) {
+        for (int pathIndex = 0; pathIndex < vec3s.size(); pathIndex++) {
+            task.checkCancelled();
+            task.setProgress(0.8f * pathIndex / vec3s.size());
+
+            Path current = vec3s.get(pathIndex);
             float distance = 0f;
             CubicSpline.Builder<Float> builderX = CubicSpline.builder((value) -> value);
             CubicSpline.Builder<Float> builderY = CubicSpline.builder((value) -> value);
@@ -406,11 +655,11 @@ public final class LootrunModel {
         return result;
     }
 
-    private static Long2ObjectMap<List<ColoredPath>> generatePointsByChunk(Path raw, boolean recording) {
+    private static Long2ObjectMap<List<ColoredPath>> generatePointsByChunk(Path raw, LootrunCompilation task) {
         float sampleRate = 10f;
 
         List<List<Vec3>> sampled =
-                sample(raw, sampleRate).stream().map(Path::points).toList();
+                sample(raw, sampleRate, task).stream().map(Path::points).toList();
         List<Vec3> vec3s = sampled.stream().flatMap(List::stream).toList();
 
         ColoredPath locationsList = new ColoredPath(new ArrayList<>());
@@ -426,7 +675,7 @@ public final class LootrunModel {
         for (int i = 0; i < vec3s.size(); i++) {
             Vec3 location = vec3s.get(i);
 
-            if (LootrunFeature.INSTANCE.rainbowLootRun && !recording) {
+            if (LootrunFeature.INSTANCE.rainbowLootRun) {
                 int cycleDistance = LootrunFeature.INSTANCE.cycleDistance;
                 int cycle = 10 * cycleDistance;
                 int parts = i % cycle;
@@ -455,14 +704,13 @@ public final class LootrunModel {
             } else {
                 locationsList
                         .points()
-                        .add(new ColoredPoint(
-                                location,
-                                recording
-                                        ? LootrunFeature.INSTANCE.recordingPathColour.asInt()
-                                        : LootrunFeature.INSTANCE.activePathColour.asInt()));
+                        .add(new ColoredPoint(location, LootrunFeature.INSTANCE.activePathColour.asInt()));
             }
         }
 
+        task.checkCancelled();
+        task.setProgress(0.9f);
+
         ColoredPath lastLocationList = null;
         Long2ObjectMap<List<ColoredPath>> sampleByChunk = new Long2ObjectOpenHashMap<>();
         ChunkPos lastChunkPos = null;
@@ -506,93 +754,171 @@ public final class LootrunModel {
         return result;
     }
 
-    private static LootrunUncompiled readJson(File file, JsonObject json) {
-        JsonArray points = json.getAsJsonArray("points");
-        Path pointsList = new Path(new ArrayList<>());
-        for (JsonElement element : points) {
-            JsonObject pointJson = element.getAsJsonObject();
-            Vec3 location = new Vec3(
-                    pointJson.get("x").getAsDouble(),
-                    pointJson.get("y").getAsDouble(),
-                    pointJson.get("z").getAsDouble());
-            pointsList.points().add(location);
-        }
-        JsonArray chestsJson = json.getAsJsonArray("chests");
-        Set<BlockPos> chests = new HashSet<>();
-        if (chestsJson != null) {
-            for (JsonElement element : chestsJson) {
-                JsonObject chestJson = element.getAsJsonObject();
-                BlockPos pos = new BlockPos(
-                        chestJson.get("x").getAsInt(),
-                        chestJson.get("y").getAsInt(),
-                        chestJson.get("z").getAsInt());
-                chests.add(pos);
-            }
-        }
-        JsonArray notesJson = json.getAsJsonArray("notes");
-        List<Note> notes = new ArrayList<>();
-        if (notesJson != null) {
-            for (JsonElement element : notesJson) {
-                JsonObject noteJson = element.getAsJsonObject();
-                JsonObject positionJson = noteJson.getAsJsonObject("location");
-                Vec3 position = new Vec3(
-                        positionJson.get("x").getAsDouble(),
-                        positionJson.get("y").getAsDouble(),
-                        positionJson.get("z").getAsDouble());
-                Component component = Component.Serializer.fromJson(noteJson.get("note"));
-                Note note = new Note(position, component);
-                notes.add(note);
-            }
-        }
-        return new LootrunUncompiled(pointsList, chests, notes, file);
-    }
-
     public static void clearCurrentLootrun() {
+        cancelCompilations();
         disableFeature();
         state = LootrunState.DISABLED;
-        lootrun = null;
+        setLootrun(null);
         uncompiled = null;
         recording = null;
-        recordingCompiled = null;
+        setRecordingCompiled(null);
+        recordingCompiler = null;
         recordingInformation = null;
+        blockValidnessCache.clear();
     }
 
     public static void stopRecording() {
         // At this point, we already have LootrunFeature registered to the event bus
         state = LootrunState.LOADED;
-        lootrun = recordingCompiled;
+        setLootrun(recordingCompiled);
         uncompiled = recording;
+
+        // The last recorded points have not been compiled yet, so compile them as the loaded lootrun instead
+        if (recordingCompilation != null || recordingInformation.isDirty()) {
+            compileLootrunAsync(uncompiled, null, null);
+        }
+
+        if (recordingCompilation != null) {
+            recordingCompilation.cancel();
+            recordingCompilation = null;
+        }
         recording = null;
         recordingCompiled = null;
+        recordingCompiler = null;
         recordingInformation = null;
     }
 
+    private static void cancelCompilations() {
+        if (compilation != null) {
+            compilation.cancel();
+            compilation = null;
+        }
+        if (recordingCompilation != null) {
+            recordingCompilation.cancel();
+            recordingCompilation = null;
+        }
+    }
+
+    private static void setLootrun(LootrunInstance instance) {
+        if (lootrun != null && lootrun != instance) {
+            lootrun.closePathBuffers();
+        }
+
+        lootrun = instance;
+    }
+
+    private static void setRecordingCompiled(LootrunInstance instance) {
+        if (recordingCompiled != null && recordingCompiled != instance) {
+            recordingCompiled.closePathBuffers();
+        }
+
+        recordingCompiled = instance;
+    }
+
     public static void startRecording() {
         state = LootrunState.RECORDING;
         recording = new LootrunUncompiled(new Path(new ArrayList<>()), new HashSet<>(), new ArrayList<>(), null);
         recordingInformation = new RecordingInformation();
+        recordingCompiler = new IncrementalCompiler(
+                new LootrunInstance(
+                        new Long2ObjectOpenHashMap<>(),
+                        new Long2ObjectOpenHashMap<>(),
+                        new Long2ObjectOpenHashMap<>(),
+                        new Long2ObjectOpenHashMap<>()),
+                LootrunFeature.INSTANCE.recordingPathColour.asInt());
+        setRecordingCompiled(recordingCompiler.getInstance());
         enableFeature();
     }
 
     public static boolean tryLoadFile(String fileName) {
-        String lootrun = fileName + ".json";
-        File lootrunFile = new File(LOOTRUNS, lootrun);
-        if (lootrunFile.exists()) {
-            try {
-                FileReader file = new FileReader(lootrunFile, StandardCharsets.UTF_8);
-                JsonObject json = JsonParser.parseReader(file).getAsJsonObject();
-                uncompiled = readJson(lootrunFile, json);
-                LootrunModel.lootrun = compile(uncompiled, false);
-                state = LootrunState.LOADED;
-                enableFeature();
-                file.close();
-                return true;
-            } catch (IOException e) {
-                WynntilsMod.error("Error when trying to load lootrun file.", e);
-                return false;
+        File lootrunFile = getLootrunFile(fileName);
+        if (lootrunFile == null) return false;
+
+        try {
+            LootrunFileParser.ParsedLootrun parsed = LootrunFileParser.read(lootrunFile);
+            uncompiled = parsed.uncompiled();
+            setLootrun(null);
+            LootrunCompilation task = compileLootrunAsync(uncompiled, parsed.chests(), parsed.notes());
+            state = LootrunState.LOADED;
+            enableFeature();
+
+            task.getFuture().exceptionally(e -> {
+                // nothing of a lootrun that failed to compile can be shown, so it is unloaded again
+                if (compilation == task && !task.isCancelled()) {
+                    clearCurrentLootrun();
+                }
+                return null;
+            });
+            return true;
+        } catch (IOException | RuntimeException e) {
+            WynntilsMod.error("Error when trying to load lootrun file.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Finds the file of a saved lootrun, preferring the binary format over the legacy JSON format
+     *
+     * @return the lootrun file, or null if no lootrun with this name exists
+     */
+    public static File getLootrunFile(String name) {
+        File binaryFile = new File(LOOTRUNS, name + LootrunFileParser.BINARY_EXTENSION);
+        if (binaryFile.exists()) return binaryFile;
+
+        File jsonFile = new File(LOOTRUNS, name + LootrunFileParser.JSON_EXTENSION);
+        if (jsonFile.exists()) return jsonFile;
+
+        return null;
+    }
+
+    /**
+     * Finds every file of a saved lootrun, as an imported or exported lootrun exists in both formats
+     *
+     * @return the existing lootrun files, empty if no lootrun with this name exists
+     */
+    public static List<File> getLootrunFiles(String name) {
+        List<File> files = new ArrayList<>();
+        for (String extension : List.of(LootrunFileParser.BINARY_EXTENSION, LootrunFileParser.JSON_EXTENSION)) {
+            File file = new File(LOOTRUNS, name + extension);
+            if (file.exists()) {
+                files.add(file);
             }
         }
-        return false;
+        return files;
+    }
+
+    /** Strips the lootrun file extension from a file name, if present */
+    public static String getLootrunName(String fileName) {
+        if (fileName.endsWith(LootrunFileParser.BINARY_EXTENSION)) {
+            return fileName.substring(0, fileName.length() - LootrunFileParser.BINARY_EXTENSION.length());
+        }
+        if (fileName.endsWith(LootrunFileParser.JSON_EXTENSION)) {
+            return fileName.substring(0, fileName.length() - LootrunFileParser.JSON_EXTENSION.length());
+        }
+
+        return fileName;
+    }
+
+    /**
+     * Converts a saved lootrun between the binary and the legacy JSON format. The source file is kept.
+     *
+     * @param toBinary if true, converts the JSON file to binary, otherwise the binary file to JSON
+     */
+    public static LootrunConvertResult tryConvertLootrun(String name, boolean toBinary) {
+        File source = new File(
+                LOOTRUNS, name + (toBinary ? LootrunFileParser.JSON_EXTENSION : LootrunFileParser.BINARY_EXTENSION));
+        File target = new File(
+                LOOTRUNS, name + (toBinary ? LootrunFileParser.BINARY_EXTENSION : LootrunFileParser.JSON_EXTENSION));
+
+        if (!source.exists()) return LootrunConvertResult.ERROR_NOT_FOUND;
+
+        try {
+            LootrunFileParser.write(LootrunFileParser.read(source), target);
+            return LootrunConvertResult.CONVERTED;
+        } catch (IOException | RuntimeException e) {
+            WynntilsMod.warn("Error when trying to convert lootrun file " + source, e);
+            return LootrunConvertResult.ERROR_CONVERTING;
+        }
     }
 
     public static LootrunUndoResult tryUndo() {
@@ -680,7 +1006,7 @@ public final class LootrunModel {
         }
 
         recording.chests().add(recordingInformation.getLastChest());
-        recordingInformation.setDirty(true);
+        refreshRecordingChestsAndNotes();
         recordingInformation.setLastChest(null);
     }
 
@@ -697,11 +1023,15 @@ public final class LootrunModel {
                     || pos.distanceToSqr(recordingInformation.getLastLocation()) >= 4d) {
                 recording.path().points().add(pos);
                 recordingInformation.setLastLocation(pos);
-                recordingInformation.setDirty(true);
+
+                // While the recording is being rebuilt, the new points are caught up with once it is done
+                if (recordingCompilation == null) {
+                    recordingCompiler.appendPoints(recording.path().points(), null);
+                }
             }
 
             if (recordingInformation.isDirty()) {
-                recordingCompiled = compile(recording, true);
+                compileRecordingAsync();
                 recordingInformation.setDirty(false);
             }
         }
@@ -729,12 +1059,80 @@ public final class LootrunModel {
         return activeLootrun.saveLootrun(name);
     }
 
+    /** A lootrun compilation running on the compiler pool */
+    public static final class LootrunCompilation {
+        private static final float PROGRESS_LISTENER_STEP = 0.25f;
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private volatile boolean cancelled = false;
+        private volatile float progress = 0f;
+        private volatile Consumer<Float> progressListener = null;
+        // only touched on the compiler thread
+        private float reportedProgress = 0f;
+
+        private void cancel() {
+            cancelled = true;
+            future.cancel(false);
+        }
+
+        private void checkCancelled() {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+        }
+
+        private void setProgress(float progress) {
+            this.progress = progress;
+
+            Consumer<Float> listener = progressListener;
+            if (listener == null || progress - reportedProgress < PROGRESS_LISTENER_STEP) return;
+
+            reportedProgress = progress;
+            McUtils.mc().execute(() -> {
+                if (!future.isDone()) {
+                    listener.accept(progress);
+                }
+            });
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /** Returns the progress of this compilation, between 0 and 1 */
+        public float getProgress() {
+            return future.isDone() ? 1f : progress;
+        }
+
+        /**
+         * Completes on the client thread once the compiled lootrun is in use. Cancelled if superseded by a newer
+         * compilation.
+         */
+        public CompletableFuture<Void> getFuture() {
+            return future;
+        }
+
+        /**
+         * Sets a listener called on the client thread while this compilation runs, with its progress between 0 and 1.
+         * It is called at most once per quarter of the compilation.
+         */
+        public void setProgressListener(Consumer<Float> listener) {
+            progressListener = listener;
+        }
+    }
+
     public enum LootrunSaveResult {
         SAVED,
         ERROR_SAVING,
         ERROR_ALREADY_EXISTS
     }
 
+    public enum LootrunConvertResult {
+        CONVERTED,
+        ERROR_NOT_FOUND,
+        ERROR_CONVERTING
+    }
+
     public enum LootrunUndoResult {
         SUCCESSFUL,
         ERROR_STAND_NEAR_POINT,
@@ -753,13 +1151,249 @@ public final class LootrunModel {
         INVALID
     }
 
+    /**
+     * A compiled lootrun. Path vertices are baked lazily into one vertex buffer per chunk the first time the chunk
+     * is rendered, and reused until the lootrun is recompiled or the chunk is invalidated.
+     */
     private record LootrunInstance(
             Long2ObjectMap<List<ColoredPath>> points,
             Long2ObjectMap<Set<BlockPos>> chests,
-            Long2ObjectMap<List<Note>> notes) {}
+            Long2ObjectMap<List<Note>> notes,
+            Long2ObjectMap<VertexBuffer> pathBuffers) {
+        private void invalidatePathBuffer(long chunk) {
+            VertexBuffer buffer = pathBuffers.remove(chunk);
+            if (buffer != null) {
+                buffer.close();
+            }
+        }
+
+        private void closePathBuffers() {
+            for (VertexBuffer buffer : pathBuffers.values()) {
+                if (buffer != null) {
+                    buffer.close();
+                }
+            }
+            pathBuffers.clear();
+        }
+    }
 
     private record ColoredPoint(Vec3 vec3, int color) {}
 
+    /**
+     * Compiles a recording one point at a time, appending to the chunk paths of its {@link LootrunInstance}.
+     *
+     * <p>This produces the same samples as {@link #sample(Path, float, LootrunCompilation)}. The spline between two
+     * points only depends on those points and their slopes, and the slope of a point only depends on the next
+     * point. Adding a point therefore only changes the samples after the second to last point: the samples after the
+     * last point are kept provisional and are replaced once the next point is known.
+     */
+    private static final class IncrementalCompiler {
+        private static final float SAMPLE_RATE = 10f;
+
+        private final LootrunInstance instance;
+        private final int color;
+        private int consumedPoints = 0;
+
+        // The last two points of the current sub path and their distance along it
+        private Vec3 previousKnot = null;
+        private float previousKnotDistance = 0f;
+        private Vec3 lastKnot = null;
+        private float lastKnotDistance = 0f;
+        private float nextSampleDistance = 0f;
+
+        // Chunk splitting state, as in generatePointsByChunk
+        private boolean hasLastChunk = false;
+        private long lastChunk = 0L;
+        private ColoredPath lastLocationList = null;
+        private Vec3 lastSample = null;
+
+        private Checkpoint provisional = null;
+
+        private IncrementalCompiler(LootrunInstance instance, int color) {
+            this.instance = instance;
+            this.color = color;
+        }
+
+        private LootrunInstance getInstance() {
+            return instance;
+        }
+
+        /** Compiles all points of the path that have not been compiled yet */
+        private void appendPoints(List<Vec3> points, LootrunCompilation task) {
+            for (int i = consumedPoints; i < points.size(); i++) {
+                if (task != null) {
+                    task.checkCancelled();
+                    task.setProgress((float) i / points.size());
+                }
+
+                appendPoint(points.get(i));
+            }
+
+            consumedPoints = Math.max(consumedPoints, points.size());
+        }
+
+        private void appendPoint(Vec3 point) {
+            LongSet changedChunks = new LongOpenHashSet();
+
+            if (lastKnot != null && lastKnot.distanceTo(point) >= 32) {
+                // Start a new sub path, the samples after the last point are final now
+                provisional = null;
+                previousKnot = null;
+                lastKnot = null;
+                nextSampleDistance = 0f;
+            }
+
+            if (lastKnot == null) {
+                lastKnot = point;
+                lastKnotDistance = 0f;
+                return;
+            }
+
+            float distance = lastKnotDistance + (float) lastKnot.distanceTo(point);
+
+            if (previousKnot != null) {
+                // Resample between the previous and last point, now that the slope of the last point is known
+                rollback(changedChunks);
+                sampleSegment(
+                        previousKnot,
+                        previousKnotDistance,
+                        getSlope(previousKnot, lastKnot),
+                        lastKnot,
+                        lastKnotDistance,
+                        getSlope(lastKnot, point),
+                        changedChunks);
+            }
+
+            provisional = new Checkpoint(this);
+            sampleSegment(
+                    lastKnot, lastKnotDistance, getSlope(lastKnot, point), point, distance, Vec3.ZERO, changedChunks);
+
+            previousKnot = lastKnot;
+            previousKnotDistance = lastKnotDistance;
+            lastKnot = point;
+            lastKnotDistance = distance;
+
+            for (long chunk : changedChunks) {
+                instance.invalidatePathBuffer(chunk);
+            }
+        }
+
+        private static Vec3 getSlope(Vec3 from, Vec3 to) {
+            double distance = from.distanceTo(to);
+            return new Vec3(
+                    (float) ((to.x - from.x) / distance),
+                    (float) ((to.y - from.y) / distance),
+                    (float) ((to.z - from.z) / distance));
+        }
+
+        private void sampleSegment(
+                Vec3 from,
+                float fromDistance,
+                Vec3 fromSlope,
+                Vec3 to,
+                float toDistance,
+                Vec3 toSlope,
+                LongSet changedChunks) {
+            CubicSpline<Float> splineX = CubicSpline.builder((Float value) -> value)
+                    .addPoint(fromDistance, (float) from.x, (float) fromSlope.x)
+                    .addPoint(toDistance, (float) to.x, (float) toSlope.x)
+                    .build();
+            CubicSpline<Float> splineY = CubicSpline.builder((Float value) -> value)
+                    .addPoint(fromDistance, (float) from.y, (float) fromSlope.y)
+                    .addPoint(toDistance, (float) to.y, (float) toSlope.y)
+                    .build();
+            CubicSpline<Float> splineZ = CubicSpline.builder((Float value) -> value)
+                    .addPoint(fromDistance, (float) from.z, (float) fromSlope.z)
+                    .addPoint(toDistance, (float) to.z, (float) toSlope.z)
+                    .build();
+
+            for (; nextSampleDistance < toDistance; nextSampleDistance += (1f / SAMPLE_RATE)) {
+                addSample(
+                        new Vec3(
+                                splineX.apply(nextSampleDistance),
+                                splineY.apply(nextSampleDistance),
+                                splineZ.apply(nextSampleDistance)),
+                        changedChunks);
+            }
+        }
+
+        private void addSample(Vec3 location, LongSet changedChunks) {
+            ColoredPoint point = new ColoredPoint(location, color);
+            long chunk = ChunkPos.asLong(Mth.fastFloor(location.x()) >> 4, Mth.fastFloor(location.z()) >> 4);
+
+            if (!hasLastChunk || chunk != lastChunk) {
+                if (hasLastChunk && location.distanceTo(lastSample) < 32) {
+                    lastLocationList.points().add(point);
+                    changedChunks.add(lastChunk);
+                }
+
+                hasLastChunk = true;
+                lastChunk = chunk;
+                lastLocationList = new ColoredPath(new ArrayList<>());
+                instance.points()
+                        .computeIfAbsent(chunk, (chunkPos) -> new ArrayList<>())
+                        .add(lastLocationList);
+
+                if (provisional != null) {
+                    provisional.createdPaths().add(Pair.of(chunk, lastLocationList));
+                }
+            }
+
+            lastLocationList.points().add(point);
+            lastSample = location;
+            changedChunks.add(chunk);
+        }
+
+        /** Removes the provisional samples again */
+        private void rollback(LongSet changedChunks) {
+            if (provisional == null) return;
+
+            for (Pair<Long, ColoredPath> created : provisional.createdPaths()) {
+                List<ColoredPath> chunkPaths = instance.points().get((long) created.a());
+                chunkPaths.removeIf(path -> path == created.b());
+                if (chunkPaths.isEmpty()) {
+                    instance.points().remove((long) created.a());
+                }
+                changedChunks.add((long) created.a());
+            }
+
+            if (provisional.lastLocationList() != null) {
+                List<ColoredPoint> points = provisional.lastLocationList().points();
+                points.subList(provisional.lastLocationListSize(), points.size()).clear();
+                changedChunks.add(provisional.lastChunk());
+            }
+
+            hasLastChunk = provisional.hasLastChunk();
+            lastChunk = provisional.lastChunk();
+            lastLocationList = provisional.lastLocationList();
+            lastSample = provisional.lastSample();
+            nextSampleDistance = provisional.nextSampleDistance();
+            provisional = null;
+        }
+
+        private record Checkpoint(
+                boolean hasLastChunk,
+                long lastChunk,
+                ColoredPath lastLocationList,
+                int lastLocationListSize,
+                Vec3 lastSample,
+                float nextSampleDistance,
+                List<Pair<Long, ColoredPath>> createdPaths) {
+            private Checkpoint(IncrementalCompiler compiler) {
+                this(
+                        compiler.hasLastChunk,
+                        compiler.lastChunk,
+                        compiler.lastLocationList,
+                        compiler.lastLocationList == null
+                                ? 0
+                                : compiler.lastLocationList.points().size(),
+                        compiler.lastSample,
+                        compiler.nextSampleDistance,
+                        new ArrayList<>());
+            }
+        }
+    }
+
     private static class RecordingInformation {
         private Vec3 lastLocation;
         private BlockPos lastChest;
@@ -790,67 +1424,25 @@ public final class LootrunModel {
         }
     }
 
-    private record LootrunUncompiled(Path path, Set<BlockPos> chests, List<Note> notes, File file) {
+    record LootrunUncompiled(Path path, Set<BlockPos> chests, List<Note> notes, File file) {
 
         private LootrunUncompiled(LootrunUncompiled old, File file) {
             this(old.path, old.chests, old.notes, file);
         }
 
         private LootrunSaveResult saveLootrun(String name) {
-            try {
-                File file = new File(LootrunModel.LOOTRUNS, name + ".json");
-                LootrunModel.uncompiled = new LootrunUncompiled(this, file);
-
-                boolean result = file.createNewFile();
-
-                if (!result) {
-                    return LootrunSaveResult.ERROR_ALREADY_EXISTS;
-                }
-
-                JsonObject json = new JsonObject();
-                JsonArray points = new JsonArray();
-                for (Vec3 point : this.path().points()) {
-                    JsonObject pointJson = new JsonObject();
-                    pointJson.addProperty("x", point.x);
-                    pointJson.addProperty("y", point.y);
-                    pointJson.addProperty("z", point.z);
-                    points.add(pointJson);
-                }
-                json.add("points", points);
-
-                JsonArray chests = new JsonArray();
-                for (BlockPos chest : this.chests()) {
-                    JsonObject chestJson = new JsonObject();
-                    chestJson.addProperty("x", chest.getX());
-                    chestJson.addProperty("y", chest.getY());
-                    chestJson.addProperty("z", chest.getZ());
-                    chests.add(chestJson);
-                }
-                json.add("chests", chests);
-
-                JsonArray notes = new JsonArray();
-                for (Note note : this.notes()) {
-                    JsonObject noteJson = new JsonObject();
-                    JsonObject locationJson = new JsonObject();
+            if (getLootrunFile(name) != null) {
+                return LootrunSaveResult.ERROR_ALREADY_EXISTS;
+            }
 
-                    Vec3 location = note.position();
-                    locationJson.addProperty("x", location.x);
-                    locationJson.addProperty("y", location.y);
-                    locationJson.addProperty("z", location.z);
-                    noteJson.add("position", locationJson);
+            File file = new File(LootrunModel.LOOTRUNS, name + LootrunFileParser.BINARY_EXTENSION);
+            LootrunUncompiled saved = new LootrunUncompiled(this, file);
+            LootrunModel.uncompiled = saved;
 
-                    noteJson.add("note", Component.Serializer.toJsonTree(note.component()));
-                    notes.add(noteJson);
-                }
-                json.add("notes", notes);
-
-                json.addProperty(
-                        "date",
-                        DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.US)
-                                .format(new Date()));
-                FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8);
-                new GsonBuilder().setPrettyPrinting().create().toJson(json, writer);
-                writer.close();
+            try {
+                String date = DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.US)
+                        .format(new Date());
+                LootrunFileParser.writeBinary(new LootrunFileParser.ParsedLootrun(saved, null, null, date), file);
                 return LootrunSaveResult.SAVED;
             } catch (IOException ex) {
                 return LootrunSaveResult.ERROR_SAVING;
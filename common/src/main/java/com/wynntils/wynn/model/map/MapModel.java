@@ -14,7 +14,6 @@ import com.wynntils.core.webapi.WebManager;
 import com.wynntils.core.webapi.request.RequestBuilder;
 import com.wynntils.core.webapi.request.RequestHandler;
 import com.wynntils.mc.objects.Location;
-import com.wynntils.utils.MathUtils;
 import com.wynntils.wynn.model.CompassModel;
 import com.wynntils.wynn.model.map.poi.Label;
 import com.wynntils.wynn.model.map.poi.LabelPoi;
@@ -28,11 +27,12 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Type;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 public final class MapModel extends Model {
@@ -47,25 +47,26 @@ public final class MapModel extends Model {
 
     private static final Gson GSON = new GsonBuilder().create();
     private static final List<MapTexture> MAPS = new CopyOnWriteArrayList<>();
-    private static final Set<Poi> ALL_POIS = new HashSet<>();
+    private static final Set<Poi> ALL_POIS = ConcurrentHashMap.newKeySet();
+    private static volatile MapTileGrid mapGrid = MapTileGrid.EMPTY;
+    private static volatile PoiGrid poiGrid = PoiGrid.EMPTY;
+    private static final AtomicInteger REVISION = new AtomicInteger();
 
     public static void init() {
-        loadMaps();
-        loadPlaces();
-        loadServices();
+        // None of these depend on the api urls, so start loading them right away
+        WebManager.runStartupPhase("map assets", () -> {
+            loadMaps();
+            loadPlaces();
+            loadServices();
+        });
     }
 
     public static Optional<MapTexture> getMapForLocation(int x, int z) {
-        return MAPS.stream()
-                .filter(map -> MathUtils.isInside(x, z, map.getX1(), map.getX2(), map.getZ1(), map.getZ2()))
-                .findFirst();
+        return mapGrid.getMapForLocation(x, z);
     }
 
     public static List<MapTexture> getMapsForBoundingBox(int x1, int x2, int z1, int z2) {
-        return MAPS.stream()
-                .filter(map -> MathUtils.boundingBoxIntersects(
-                        x1, x2, z1, z2, map.getX1(), map.getX2(), map.getZ1(), map.getZ2()))
-                .toList();
+        return mapGrid.getMapsForBoundingBox(x1, x2, z1, z2);
     }
 
     public static Stream<Poi> getAllPois() {
@@ -81,11 +82,52 @@ public final class MapModel extends Model {
         return ALL_POIS.stream();
     }
 
+    /** Returns the label POIs in the given box, along with some just outside it */
+    public static List<LabelPoi> getLabelPoisNear(float x1, float x2, float z1, float z2) {
+        return poiGrid.getLabels(x1, x2, z1, z2);
+    }
+
+    /**
+     * Returns the POIs with an icon in the given box, along with some just outside it, in the order they should be
+     * drawn. The compass waypoint is always included and drawn last.
+     */
+    public static List<Poi> getTexturedPoisNear(float x1, float x2, float z1, float z2) {
+        List<Poi> pois = poiGrid.getTexturedPois(x1, x2, z1, z2);
+
+        if (CompassModel.getCompassLocation().isPresent()) {
+            Location location = CompassModel.getCompassLocation().get();
+            pois.add(new WaypointPoi(new MapLocation((int) location.x, Integer.MAX_VALUE, (int) location.z)));
+        }
+
+        return pois;
+    }
+
+    /** Increases whenever something the map draws changes: map parts, their loaded levels of detail or the POIs */
+    public static int getRevision() {
+        return REVISION.get();
+    }
+
+    static void markChanged() {
+        REVISION.incrementAndGet();
+    }
+
+    private static synchronized void rebuildMapGrid() {
+        mapGrid = new MapTileGrid(List.copyOf(MAPS));
+        markChanged();
+    }
+
+    private static synchronized void rebuildPoiGrid() {
+        // built from a snapshot taken under the lock, so a later rebuild always sees at least as many POIs
+        poiGrid = new PoiGrid(List.copyOf(ALL_POIS));
+        markChanged();
+    }
+
     private static void loadMaps() {
         File mapDirectory = new File(WebManager.API_CACHE_ROOT, "maps");
         RequestHandler handler = WebManager.getHandler();
 
         MAPS.clear();
+        rebuildMapGrid();
 
         handler.addAndDispatch(new RequestBuilder(MAPS_JSON_URL, "map-parts")
                 .cacheTo(new File(mapDirectory, "maps.json"))
@@ -105,8 +147,15 @@ public final class MapModel extends Model {
                                     try (ByteArrayInputStream in = new ByteArrayInputStream(bytes)) {
                                         NativeImage nativeImage = NativeImage.read(in);
                                         MapTexture mapPartImage = new MapTexture(
-                                                fileName, nativeImage, mapPart.x1, mapPart.z1, mapPart.x2, mapPart.z2);
+                                                mapDirectory,
+                                                fileName,
+                                                nativeImage,
+                                                mapPart.x1,
+                                                mapPart.z1,
+                                                mapPart.x2,
+                                                mapPart.z2);
                                         MAPS.add(mapPartImage);
+                                        rebuildMapGrid();
                                     } catch (IOException e) {
                                         WynntilsMod.info(
                                                 "IOException occurred while loading map image of " + mapPart.name);
@@ -135,6 +184,7 @@ public final class MapModel extends Model {
                     for (Label label : places.labels) {
                         ALL_POIS.add(new LabelPoi(label));
                     }
+                    rebuildPoiGrid();
                     return true;
                 })
                 .build());
@@ -160,6 +210,7 @@ public final class MapModel extends Model {
                             WynntilsMod.warn("Unknown service type in services.json: " + service.type);
                         }
                     }
+                    rebuildPoiGrid();
 
                     return true;
                 })
@@ -176,6 +227,7 @@ public final class MapModel extends Model {
                     for (int i = 0; i < mapLocations.size(); i++) {
                         ALL_POIS.add(new LostSpiritPoi(mapLocations.get(i), i + 1));
                     }
+                    rebuildPoiGrid();
 
                     return true;
                 })
@@ -4,16 +4,46 @@
  */
 package com.wynntils.wynn.model.map;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.mojang.blaze3d.platform.NativeImage;
+import com.wynntils.core.WynntilsMod;
 import com.wynntils.mc.utils.McUtils;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import net.minecraft.client.renderer.texture.DynamicTexture;
 import net.minecraft.resources.ResourceLocation;
 
+/**
+ * A map part, drawn from a pyramid of levels of detail: level 0 is the full resolution image, every further level is
+ * half the size of the previous one.
+ *
+ * The levels are generated once, when the part is downloaded, and cached as pngs next to it. No image is kept in
+ * memory: a level is read from disk on a background thread the first time it is drawn, uploaded on the render thread,
+ * and released again once the uploaded levels of all parts exceed {@link #MAX_UPLOADED_BYTES} and it is the least
+ * recently drawn one.
+ */
 public class MapTexture {
-    private final NativeImage texture;
-    private final ResourceLocation mapResource;
+    private static final int LEVELS = 4;
+    private static final long MAX_UPLOADED_BYTES = 256L * 1024 * 1024;
+    private static final long MIN_MISSING_RETRY_MILLIS = 1000;
+    private static final long MAX_MISSING_RETRY_MILLIS = 60000;
+
+    private static final ExecutorService LOAD_EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("wynntils-map-texture-loader-%d")
+            .setDaemon(true)
+            .build());
+    // Only touched on the render thread, in least recently drawn order
+    private static final Map<Level, Boolean> UPLOADED = new LinkedHashMap<>(16, 0.75f, true);
+    private static long uploadedBytes = 0;
 
-    private boolean registered = false;
+    private final Level[] levels = new Level[LEVELS];
 
     private final int x1;
     private final int z1;
@@ -23,8 +53,12 @@ public class MapTexture {
     private final int textureWidth;
     private final int textureHeight;
 
-    public MapTexture(String name, NativeImage texture, int x1, int z1, int x2, int z2) {
-        this.texture = texture;
+    /**
+     * @param directory the directory the full resolution image is cached in, and the levels are cached to
+     * @param name the file name of the full resolution image
+     * @param texture the full resolution image, only used to generate missing levels and closed afterwards
+     */
+    public MapTexture(File directory, String name, NativeImage texture, int x1, int z1, int x2, int z2) {
         this.x1 = x1;
         this.z1 = z1;
         this.x2 = x2;
@@ -32,19 +66,69 @@ public class MapTexture {
         this.textureWidth = texture.getWidth();
         this.textureHeight = texture.getHeight();
 
-        this.mapResource = new ResourceLocation("wynntils", "/maps/" + name);
-
         assert (x2 - x1 + 1 == textureWidth);
         assert (z2 - z1 + 1 == textureHeight);
+
+        String baseName = name.endsWith(".png") ? name.substring(0, name.length() - 4) : name;
+        for (int i = 0; i < LEVELS; i++) {
+            String levelName = i == 0 ? name : baseName + "-lod" + i + ".png";
+            levels[i] = new Level(
+                    new File(directory, levelName),
+                    new ResourceLocation("wynntils", "/maps/" + levelName),
+                    Math.max(textureWidth >> i, 1),
+                    Math.max(textureHeight >> i, 1));
+        }
+
+        generateLevels(texture);
+    }
+
+    private void generateLevels(NativeImage texture) {
+        boolean missing = false;
+        for (int i = 1; i < LEVELS; i++) {
+            missing |= !levels[i].file.exists();
+        }
+
+        NativeImage previous = texture;
+        try {
+            for (int i = 1; i < LEVELS && missing; i++) {
+                NativeImage level = downsample(previous);
+                if (previous != texture) previous.close();
+                previous = level;
+
+                if (!levels[i].file.exists()) {
+                    level.writeToFile(levels[i].file);
+                }
+            }
+        } catch (IOException e) {
+            WynntilsMod.warn("Failed to cache the levels of detail of map part " + levels[0].file.getName(), e);
+        } finally {
+            if (previous != texture) previous.close();
+            texture.close();
+        }
     }
 
-    public ResourceLocation resource() {
-        if (!registered) {
-            registered = true;
-            McUtils.mc().getTextureManager().register(mapResource, new DynamicTexture(texture));
+    /**
+     * Returns the texture to draw this part with, at the level of detail best suited to the given scale, or null if
+     * no level is loaded yet
+     *
+     * @param blocksPerPixel how many blocks are drawn on a single screen pixel
+     */
+    public ResourceLocation resource(float blocksPerPixel) {
+        int wanted = 0;
+        while (wanted < LEVELS - 1 && (2 << wanted) <= blocksPerPixel) {
+            wanted++;
         }
 
-        return mapResource;
+        if (levels[wanted].isReady()) return levels[wanted].upload();
+
+        // draw with whatever is already there while the wanted level loads, finer levels first
+        levels[wanted].load();
+        for (int distance = 1; distance < LEVELS; distance++) {
+            for (int level : new int[] {wanted - distance, wanted + distance}) {
+                if (level >= 0 && level < LEVELS && levels[level].isReady()) return levels[level].upload();
+            }
+        }
+        return null;
     }
 
     public float getTextureXPosition(double posX) {
@@ -79,11 +163,134 @@ public class MapTexture {
         return z2;
     }
 
+    /** The height of the full resolution texture, texture positions are always in its pixels */
     public int getTextureHeight() {
         return textureHeight;
     }
 
+    /** The width of the full resolution texture, texture positions are always in its pixels */
     public int getTextureWidth() {
         return textureWidth;
     }
+
+    private static NativeImage downsample(NativeImage source) {
+        int width = Math.max(source.getWidth() / 2, 1);
+        int height = Math.max(source.getHeight() / 2, 1);
+        NativeImage result = new NativeImage(width, height, false);
+
+        for (int y = 0; y < height; y++) {
+            int sourceY = Math.min(y * 2, source.getHeight() - 1);
+            int nextY = Math.min(sourceY + 1, source.getHeight() - 1);
+
+            for (int x = 0; x < width; x++) {
+                int sourceX = Math.min(x * 2, source.getWidth() - 1);
+                int nextX = Math.min(sourceX + 1, source.getWidth() - 1);
+
+                result.setPixelRGBA(
+                        x,
+                        y,
+                        average(
+                                source.getPixelRGBA(sourceX, sourceY),
+                                source.getPixelRGBA(nextX, sourceY),
+                                source.getPixelRGBA(sourceX, nextY),
+                                source.getPixelRGBA(nextX, nextY)));
+            }
+        }
+        return result;
+    }
+
+    private static int average(int a, int b, int c, int d) {
+        int result = 0;
+        // the channel order doesn't matter here, each byte is averaged on its own
+        for (int shift = 0; shift < 32; shift += 8) {
+            int sum = ((a >>> shift) & 0xff) + ((b >>> shift) & 0xff) + ((c >>> shift) & 0xff) + ((d >>> shift) & 0xff);
+            result |= ((sum + 2) / 4) << shift;
+        }
+        return result;
+    }
+
+    private static void evictOverBudget(Level keep) {
+        Iterator<Level> iterator = UPLOADED.keySet().iterator();
+        while (uploadedBytes > MAX_UPLOADED_BYTES && iterator.hasNext()) {
+            Level level = iterator.next();
+            if (level == keep) continue;
+
+            iterator.remove();
+            level.release();
+        }
+    }
+
+    private static final class Level {
+        private final File file;
+        private final ResourceLocation resource;
+        private final long bytes;
+
+        // set on the loader thread, taken on the render thread
+        private volatile NativeImage loaded = null;
+        private volatile boolean loading = false;
+        private volatile boolean failed = false;
+        // when to look for a missing file again, doubling the wait every time it is still missing
+        private volatile long missingRetryTime = 0;
+        private volatile long missingRetryDelay = MIN_MISSING_RETRY_MILLIS;
+        private DynamicTexture texture = null;
+
+        private Level(File file, ResourceLocation resource, int width, int height) {
+            this.file = file;
+            this.resource = resource;
+            this.bytes = (long) width * height * 4;
+        }
+
+        private boolean isReady() {
+            return texture != null || loaded != null;
+        }
+
+        private void load() {
+            if (isReady() || loading || failed || System.currentTimeMillis() < missingRetryTime) return;
+
+            loading = true;
+            LOAD_EXECUTOR.execute(() -> {
+                if (file.exists()) {
+                    try (InputStream in = new FileInputStream(file)) {
+                        loaded = NativeImage.read(in);
+                        MapModel.markChanged();
+                    } catch (IOException e) {
+                        WynntilsMod.warn("Failed to read map part " + file.getName(), e);
+                        failed = true;
+                    }
+                } else {
+                    // a freshly downloaded part is only written to its cache file after it was handled, and writing
+                    // it or a level of detail can fail, so look again later rather than on every frame
+                    missingRetryTime = System.currentTimeMillis() + missingRetryDelay;
+                    missingRetryDelay = Math.min(missingRetryDelay * 2, MAX_MISSING_RETRY_MILLIS);
+                }
+                loading = false;
+            });
+        }
+
+        private ResourceLocation upload() {
+            if (texture == null) {
+                texture = new DynamicTexture(loaded);
+                loaded = null;
+                McUtils.mc().getTextureManager().register(resource, texture);
+
+                uploadedBytes += bytes;
+                UPLOADED.put(this, Boolean.TRUE);
+                evictOverBudget(this);
+            } else {
+                // marks this as the most recently drawn level
+                UPLOADED.get(this);
+            }
+
+            return resource;
+        }
+
+        private void release() {
+            // the texture manager frees the GPU texture and closing frees the image, registering a new texture later
+            // replaces this one
+            McUtils.mc().getTextureManager().release(resource);
+            texture.close();
+            texture = null;
+            uploadedBytes -= bytes;
+        }
+    }
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.model.map;
+
+import com.wynntils.utils.MathUtils;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An immutable coarse grid over the loaded map parts, listing for every world region the parts overlapping it, so
+ * looking up the parts for a location or box doesn't have to test every part.
+ *
+ * The minimap looks up nearly the same box every frame, so the candidates of the last box's cells and the part of the
+ * last location are remembered and reused while the lookups stay within them.
+ */
+final class MapTileGrid {
+    static final MapTileGrid EMPTY = new MapTileGrid(List.of());
+
+    private static final int CELL_SIZE = 512;
+
+    private final List<MapTexture> maps;
+    private final int minCellX;
+    private final int minCellZ;
+    private final int columns;
+    private final int rows;
+    // [row * columns + column] -> indices into maps, in load order
+    private final int[][] cells;
+
+    private volatile MapTexture lastHit = null;
+    private volatile CellRange lastRange = null;
+
+    MapTileGrid(List<MapTexture> maps) {
+        this.maps = maps;
+
+        int minX = Integer.MAX_VALUE;
+        int minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxZ = Integer.MIN_VALUE;
+        for (MapTexture map : maps) {
+            minX = Math.min(minX, map.getX1());
+            minZ = Math.min(minZ, map.getZ1());
+            maxX = Math.max(maxX, map.getX2());
+            maxZ = Math.max(maxZ, map.getZ2());
+        }
+
+        if (maps.isEmpty()) {
+            minCellX = 0;
+            minCellZ = 0;
+            columns = 0;
+            rows = 0;
+        } else {
+            minCellX = Math.floorDiv(minX, CELL_SIZE);
+            minCellZ = Math.floorDiv(minZ, CELL_SIZE);
+            columns = Math.floorDiv(maxX, CELL_SIZE) - minCellX + 1;
+            rows = Math.floorDiv(maxZ, CELL_SIZE) - minCellZ + 1;
+        }
+
+        List<List<Integer>> cellMaps = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            cellMaps.add(new ArrayList<>());
+        }
+        for (int i = 0; i < maps.size(); i++) {
+            MapTexture map = maps.get(i);
+            for (int row = rowOf(map.getZ1()); row <= rowOf(map.getZ2()); row++) {
+                for (int column = columnOf(map.getX1()); column <= columnOf(map.getX2()); column++) {
+                    cellMaps.get(row * columns + column).add(i);
+                }
+            }
+        }
+
+        cells = new int[columns * rows][];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = cellMaps.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    Optional<MapTexture> getMapForLocation(int x, int z) {
+        // the parts don't overlap, so the part containing the last location is still the one to return
+        MapTexture last = lastHit;
+        if (last != null && isInside(last, x, z)) return Optional.of(last);
+
+        int column = columnOf(x);
+        int row = rowOf(z);
+        if (column < 0 || column >= columns || row < 0 || row >= rows) return Optional.empty();
+
+        for (int index : cells[row * columns + column]) {
+            MapTexture map = maps.get(index);
+            if (isInside(map, x, z)) {
+                lastHit = map;
+                return Optional.of(map);
+            }
+        }
+        return Optional.empty();
+    }
+
+    List<MapTexture> getMapsForBoundingBox(int x1, int x2, int z1, int z2) {
+        int fromColumn = Math.max(columnOf(x1), 0);
+        int toColumn = Math.min(columnOf(x2), columns - 1);
+        int fromRow = Math.max(rowOf(z1), 0);
+        int toRow = Math.min(rowOf(z2), rows - 1);
+        if (fromColumn > toColumn || fromRow > toRow) return List.of();
+
+        CellRange range = lastRange;
+        if (range == null || !range.isSame(fromColumn, toColumn, fromRow, toRow)) {
+            List<MapTexture> candidates = getCandidates(fromColumn, toColumn, fromRow, toRow);
+            range = new CellRange(fromColumn, toColumn, fromRow, toRow, candidates);
+            lastRange = range;
+        }
+
+        List<MapTexture> result = new ArrayList<>(range.candidates().size());
+        for (MapTexture map : range.candidates()) {
+            if (MathUtils.boundingBoxIntersects(x1, x2, z1, z2, map.getX1(), map.getX2(), map.getZ1(), map.getZ2())) {
+                result.add(map);
+            }
+        }
+        return result;
+    }
+
+    private List<MapTexture> getCandidates(int fromColumn, int toColumn, int fromRow, int toRow) {
+        // a part spanning several cells is listed in all of them, the bitset dedupes and keeps the load order
+        BitSet indices = new BitSet(maps.size());
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                for (int index : cells[row * columns + column]) {
+                    indices.set(index);
+                }
+            }
+        }
+
+        List<MapTexture> candidates = new ArrayList<>(indices.cardinality());
+        for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+            candidates.add(maps.get(i));
+        }
+        return candidates;
+    }
+
+    private int columnOf(int x) {
+        return Math.floorDiv(x, CELL_SIZE) - minCellX;
+    }
+
+    private int rowOf(int z) {
+        return Math.floorDiv(z, CELL_SIZE) - minCellZ;
+    }
+
+    private static boolean isInside(MapTexture map, int x, int z) {
+        return MathUtils.isInside(x, z, map.getX1(), map.getX2(), map.getZ1(), map.getZ2());
+    }
+
+    private record CellRange(int fromColumn, int toColumn, int fromRow, int toRow, List<MapTexture> candidates) {
+        private boolean isSame(int fromColumn, int toColumn, int fromRow, int toRow) {
+            return this.fromColumn == fromColumn
+                    && this.toColumn == toColumn
+                    && this.fromRow == fromRow
+                    && this.toRow == toRow;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.model.map;
+
+import com.wynntils.wynn.model.map.poi.LabelPoi;
+import com.wynntils.wynn.model.map.poi.Poi;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable uniform grid over a set of POIs, so finding the POIs in a box only looks at the cells the box covers.
+ *
+ * Each cell keeps its labels, and its textured POIs already in draw order (by Y), so gathering the POIs of a viewport
+ * only has to merge a few sorted runs.
+ */
+final class PoiGrid {
+    static final PoiGrid EMPTY = new PoiGrid(List.of());
+
+    private static final int CELL_SIZE = 128;
+    private static final Comparator<Poi> DRAW_ORDER = Comparator.comparingInt(poi -> poi.getLocation().getY());
+
+    private final int minCellX;
+    private final int minCellZ;
+    private final int columns;
+    private final int rows;
+    // [row * columns + column]
+    private final LabelPoi[][] labels;
+    private final Poi[][] texturedPois;
+
+    PoiGrid(Collection<Poi> pois) {
+        int minX = Integer.MAX_VALUE;
+        int minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxZ = Integer.MIN_VALUE;
+        for (Poi poi : pois) {
+            minX = Math.min(minX, poi.getLocation().getX());
+            minZ = Math.min(minZ, poi.getLocation().getZ());
+            maxX = Math.max(maxX, poi.getLocation().getX());
+            maxZ = Math.max(maxZ, poi.getLocation().getZ());
+        }
+
+        if (pois.isEmpty()) {
+            minCellX = 0;
+            minCellZ = 0;
+            columns = 0;
+            rows = 0;
+        } else {
+            minCellX = Math.floorDiv(minX, CELL_SIZE);
+            minCellZ = Math.floorDiv(minZ, CELL_SIZE);
+            columns = Math.floorDiv(maxX, CELL_SIZE) - minCellX + 1;
+            rows = Math.floorDiv(maxZ, CELL_SIZE) - minCellZ + 1;
+        }
+
+        List<List<LabelPoi>> cellLabels = new ArrayList<>(columns * rows);
+        List<List<Poi>> cellTextured = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            cellLabels.add(new ArrayList<>());
+            cellTextured.add(new ArrayList<>());
+        }
+
+        for (Poi poi : pois) {
+            int cell = cellIndex(poi.getLocation().getX(), poi.getLocation().getZ());
+            if (poi instanceof LabelPoi labelPoi) {
+                cellLabels.get(cell).add(labelPoi);
+            }
+            if (poi.getIcon() != null) {
+                cellTextured.get(cell).add(poi);
+            }
+        }
+
+        labels = new LabelPoi[columns * rows][];
+        texturedPois = new Poi[columns * rows][];
+        for (int i = 0; i < columns * rows; i++) {
+            labels[i] = cellLabels.get(i).toArray(new LabelPoi[0]);
+
+            List<Poi> textured = cellTextured.get(i);
+            textured.sort(DRAW_ORDER);
+            texturedPois[i] = textured.toArray(new Poi[0]);
+        }
+    }
+
+    /** Returns the labels of the cells covering the box, which may include some just outside it */
+    List<LabelPoi> getLabels(float x1, float x2, float z1, float z2) {
+        List<LabelPoi> result = new ArrayList<>();
+        forEachCell(x1, x2, z1, z2, cell -> Collections.addAll(result, labels[cell]));
+        return result;
+    }
+
+    /**
+     * Returns the POIs with an icon of the cells covering the box in draw order, which may include some just outside
+     * the box
+     */
+    List<Poi> getTexturedPois(float x1, float x2, float z1, float z2) {
+        List<Poi> result = new ArrayList<>();
+        int[] runs = {0};
+        forEachCell(x1, x2, z1, z2, cell -> {
+            if (texturedPois[cell].length == 0) return;
+
+            Collections.addAll(result, texturedPois[cell]);
+            runs[0]++;
+        });
+
+        // the cells are sorted runs, which the sort merges in linear time
+        if (runs[0] > 1) {
+            result.sort(DRAW_ORDER);
+        }
+        return result;
+    }
+
+    private void forEachCell(float x1, float x2, float z1, float z2, IntConsumer consumer) {
+        if (columns == 0) return;
+
+        int fromColumn = Math.max(Math.floorDiv((int) Math.floor(Math.min(x1, x2)), CELL_SIZE) - minCellX, 0);
+        int toColumn = Math.min(Math.floorDiv((int) Math.ceil(Math.max(x1, x2)), CELL_SIZE) - minCellX, columns - 1);
+        int fromRow = Math.max(Math.floorDiv((int) Math.floor(Math.min(z1, z2)), CELL_SIZE) - minCellZ, 0);
+        int toRow = Math.min(Math.floorDiv((int) Math.ceil(Math.max(z1, z2)), CELL_SIZE) - minCellZ, rows - 1);
+
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                consumer.accept(row * columns + column);
+            }
+        }
+    }
+
+    private int cellIndex(int x, int z) {
+        return (Math.floorDiv(z, CELL_SIZE) - minCellZ) * columns + (Math.floorDiv(x, CELL_SIZE) - minCellX);
+    }
+}
@@ -4,12 +4,15 @@
  */
 package com.wynntils.wynn.model.map.poi;
 
+import com.wynntils.gui.render.FontRenderer;
 import com.wynntils.gui.render.Texture;
 
 public class LabelPoi extends Poi {
     private static final int LABEL_Y = 64;
 
     private final Label label;
+    // measured on first draw, the font can't be used from the thread labels are loaded on
+    private int textWidth = -1;
 
     public LabelPoi(Label label) {
         super(new MapLocation(label.getX(), LABEL_Y, label.getZ()));
@@ -30,4 +33,12 @@ public class LabelPoi extends Poi {
     public Label getLabel() {
         return label;
     }
+
+    /** The width of the label name when drawn with the default font, in gui pixels */
+    public int getTextWidth() {
+        if (textWidth < 0) {
+            textWidth = FontRenderer.getInstance().getFont().width(label.getName());
+        }
+        return textWidth;
+    }
 }
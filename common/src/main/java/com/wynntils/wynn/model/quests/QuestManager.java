@@ -6,6 +6,7 @@ package com.wynntils.wynn.model.quests;
 
 import com.wynntils.core.WynntilsMod;
 import com.wynntils.core.managers.CoreManager;
+import com.wynntils.core.webapi.WebManager;
 import com.wynntils.core.webapi.request.Request;
 import com.wynntils.core.webapi.request.RequestBuilder;
 import com.wynntils.core.webapi.request.RequestHandler;
@@ -114,7 +115,7 @@ public class QuestManager extends CoreManager {
     public static void openQuestOnWiki(QuestInfo questInfo) {
         // TODO handle mini quest
         String url = WIKI_QUEST_PAGE_QUERY + WebUtils.encodeForCargoQuery(questInfo.getName());
-        Request req = new RequestBuilder(url, "WikiQuestQuery")
+        Request req = new RequestBuilder(url, "WikiQuestQuery-" + questInfo.getName())
                 .handleJsonArray(jsonOutput -> {
                     String pageTitle = jsonOutput
                             .get(0)
@@ -126,9 +127,9 @@ public class QuestManager extends CoreManager {
                 })
                 .build();
 
-        RequestHandler handler = new RequestHandler();
+        RequestHandler handler = WebManager.getHandler();
 
-        handler.addAndDispatch(req, true);
+        handler.addAndDispatchAsync(req);
     }
 
     public static QuestInfo getCurrentQuest() {
@@ -7,20 +7,16 @@ package com.wynntils.wynn.objects;
 import com.wynntils.core.webapi.profiles.item.IdentificationModifier;
 import com.wynntils.core.webapi.profiles.item.IdentificationProfile;
 import com.wynntils.core.webapi.profiles.item.ItemProfile;
-import net.minecraft.network.chat.Component;
 
 public record ItemIdentificationContainer(
         ItemProfile item,
         IdentificationProfile identification,
         IdentificationModifier modifier,
+        String idName,
         String shortIdName,
         int value,
         int stars,
-        float percent,
-        Component rawLoreLine,
-        Component percentLoreLine,
-        Component rangeLoreLine,
-        Component rerollLoreLine) {
+        float percent) {
 
     public boolean isNew() {
         return (identification == null || identification.isInvalidValue(value));
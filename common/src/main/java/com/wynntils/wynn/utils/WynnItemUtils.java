@@ -6,6 +6,7 @@ package com.wynntils.wynn.utils;
 
 import com.wynntils.core.webapi.profiles.item.IdentificationModifier;
 import com.wynntils.core.webapi.profiles.item.IdentificationProfile;
+import com.wynntils.core.webapi.profiles.item.IdentificationRollTable;
 import com.wynntils.core.webapi.profiles.item.ItemProfile;
 import com.wynntils.features.user.tooltips.ItemStatInfoFeature;
 import com.wynntils.utils.MathUtils;
@@ -59,14 +60,13 @@ public final class WynnItemUtils {
             shortIdName = IdentificationProfile.getAsShortName(idName, isRaw);
         }
 
-        return identificationFromValue(lore, item, idName, shortIdName, value, starCount);
+        return identificationFromValue(item, idName, shortIdName, value, starCount);
     }
 
     /**
      * Creates an ItemIdentificationContainer from the given item, ID names, ID value, and star count
      * Returns null if the given ID is not valid
      *
-     * @param lore the ID lore line component - can be null if ID isn't being created from lore
      * @param item the ItemProfile of the given item
      * @param idName the in-game name of the given ID
      * @param shortIdName the internal wynntils name of the given ID
@@ -75,113 +75,152 @@ public final class WynnItemUtils {
      * @return the parsed ItemIdentificationContainer, or null if the ID is invalid
      */
     public static ItemIdentificationContainer identificationFromValue(
-            Component lore, ItemProfile item, String idName, String shortIdName, int value, int starCount) {
-        boolean isInverted = IdentificationOrderer.INSTANCE.isInverted(shortIdName);
+            ItemProfile item, String idName, String shortIdName, int value, int starCount) {
         IdentificationProfile idProfile = item.getStatuses().get(shortIdName);
         IdentificationModifier type =
                 idProfile != null ? idProfile.getType() : IdentificationProfile.getTypeFromName(shortIdName);
         if (type == null) return null; // not a valid id
 
-        MutableComponent percentLine = new TextComponent("");
+        float percentage = -1;
+        if (idProfile != null && !idProfile.isInvalidValue(value) && !idProfile.hasConstantValue()) {
+            boolean isInverted = IdentificationOrderer.INSTANCE.isInverted(shortIdName);
+            percentage = idProfile.getRollTable(isInverted).getPercentage(value);
+        }
+
+        return new ItemIdentificationContainer(
+                item, idProfile, type, idName, shortIdName, value, starCount, percentage);
+    }
+
+    /**
+     * Create a list of ItemIdentificationContainer corresponding to the given ItemProfile, for item guide items
+     *
+     * @param item the profile of the item
+     * @return a list of ItemIdentificationContainer, to be shown with {@link #getGuideLoreLine}
+     */
+    public static List<ItemIdentificationContainer> identificationsFromProfile(ItemProfile item) {
+        List<ItemIdentificationContainer> ids = new ArrayList<>();
 
-        MutableComponent statInfo = new TextComponent((value > 0 ? "+" : "") + value + type.getInGame(shortIdName));
-        statInfo.setStyle(Style.EMPTY.withColor(isInverted ^ (value > 0) ? ChatFormatting.GREEN : ChatFormatting.RED));
+        for (Map.Entry<String, IdentificationProfile> entry : item.getStatuses().entrySet()) {
+            IdentificationProfile idProfile = entry.getValue();
+            String idName = entry.getKey();
 
-        percentLine.append(statInfo);
+            ids.add(new ItemIdentificationContainer(
+                    item,
+                    idProfile,
+                    idProfile.getType(),
+                    IdentificationProfile.getAsLongName(idName),
+                    idName,
+                    0,
+                    0,
+                    -1));
+        }
 
-        if (ItemStatInfoFeature.showStars)
-            percentLine.append(new TextComponent("***".substring(3 - starCount)).withStyle(ChatFormatting.DARK_GREEN));
+        return ids;
+    }
 
-        percentLine.append(new TextComponent(" " + idName).withStyle(ChatFormatting.GRAY));
+    /**
+     * Create the lore line of an ID, with the percentage of its roll
+     *
+     * @param id the parsed ID
+     * @return the styled ID lore line
+     */
+    public static MutableComponent getPercentLoreLine(ItemIdentificationContainer id) {
+        MutableComponent line = getStatLoreLine(id);
+        if (!hasRoll(id)) return line;
 
-        boolean isNew = idProfile == null || idProfile.isInvalidValue(value);
+        IdentificationRollTable rolls = id.identification().getRollTable(isInverted(id));
+        return line.append(rolls.getPercentageComponent(id.value(), ItemStatInfoFeature.colorLerp));
+    }
+
+    /**
+     * Create the lore line of an ID, with the range it can roll in
+     *
+     * @param id the parsed ID
+     * @return the styled ID lore line
+     */
+    public static MutableComponent getRangeLoreLine(ItemIdentificationContainer id) {
+        MutableComponent line = getStatLoreLine(id);
+        if (!hasRoll(id)) return line;
 
-        if (isNew) percentLine.append(new TextComponent(" [NEW]").withStyle(ChatFormatting.GOLD));
+        return line.append(getRangeTextComponent(id.identification().getMin(), id.identification().getMax()));
+    }
 
-        MutableComponent rangeLine = percentLine.copy();
-        MutableComponent rerollLine = percentLine.copy();
+    /**
+     * Create the lore line of an ID, with its reroll chances
+     *
+     * @param id the parsed ID
+     * @return the styled ID lore line
+     */
+    public static MutableComponent getRerollLoreLine(ItemIdentificationContainer id) {
+        MutableComponent line = getStatLoreLine(id);
+        if (!hasRoll(id)) return line;
+
+        IdentificationRollTable rolls = id.identification().getRollTable(isInverted(id));
+        return line.append(getRerollChancesComponent(
+                id.identification().getPerfectChance(),
+                rolls.getIncrease(id.value(), id.stars()),
+                rolls.getDecrease(id.value(), id.stars())));
+    }
 
-        float percentage = -1;
-        if (!isNew && !idProfile.hasConstantValue()) {
-            // calculate percent/range/reroll chances, append to lines
+    /**
+     * Create the lore line of an ID of an item guide item, showing the range it can roll in
+     *
+     * @param id an ID from {@link #identificationsFromProfile}
+     * @return the styled ID lore line
+     */
+    public static MutableComponent getGuideLoreLine(ItemIdentificationContainer id) {
+        IdentificationProfile idProfile = id.identification();
+        String shortIdName = id.shortIdName();
+        MutableComponent line;
+
+        boolean inverted = isInverted(id);
+        if (idProfile.hasConstantValue()) {
+            int value = idProfile.getBaseValue();
+            line = new TextComponent((value > 0 ? "+" : "") + value + id.modifier().getInGame(shortIdName));
+            line.setStyle(Style.EMPTY.withColor(inverted ^ (value > 0) ? ChatFormatting.GREEN : ChatFormatting.RED));
+        } else {
             int min = idProfile.getMin();
             int max = idProfile.getMax();
+            ChatFormatting mainColor = inverted ^ (min > 0) ? ChatFormatting.GREEN : ChatFormatting.RED;
+            ChatFormatting textColor = inverted ^ (min > 0) ? ChatFormatting.DARK_GREEN : ChatFormatting.DARK_RED;
+            line = new TextComponent((min > 0 ? "+" : "") + min).withStyle(mainColor);
+            line.append(new TextComponent(" to ").withStyle(textColor));
+            line.append(new TextComponent((max > 0 ? "+" : "") + max + id.modifier().getInGame(shortIdName))
+                    .withStyle(mainColor));
+        }
 
-            if (isInverted) {
-                percentage = MathUtils.inverseLerp(max, min, value) * 100;
-            } else {
-                percentage = MathUtils.inverseLerp(min, max, value) * 100;
-            }
+        line.append(new TextComponent(" " + id.idName()).withStyle(ChatFormatting.GRAY));
 
-            IdentificationProfile.ReidentificationChances chances = idProfile.getChances(value, isInverted, starCount);
+        return line;
+    }
 
-            percentLine.append(WynnItemUtils.getPercentageTextComponent(percentage));
+    private static MutableComponent getStatLoreLine(ItemIdentificationContainer id) {
+        int value = id.value();
+        MutableComponent line = new TextComponent("");
 
-            rangeLine.append(WynnItemUtils.getRangeTextComponent(min, max));
+        MutableComponent statInfo =
+                new TextComponent((value > 0 ? "+" : "") + value + id.modifier().getInGame(id.shortIdName()));
+        statInfo.setStyle(
+                Style.EMPTY.withColor(isInverted(id) ^ (value > 0) ? ChatFormatting.GREEN : ChatFormatting.RED));
 
-            rerollLine.append(WynnItemUtils.getRerollChancesComponent(
-                    idProfile.getPerfectChance(), chances.increase(), chances.decrease()));
-        }
+        line.append(statInfo);
 
-        // lore might be null if this ID is not being created from a lore line
-        if (lore == null) lore = percentLine;
+        if (ItemStatInfoFeature.showStars)
+            line.append(new TextComponent("***".substring(3 - id.stars())).withStyle(ChatFormatting.DARK_GREEN));
 
-        // create container
-        return new ItemIdentificationContainer(
-                item,
-                idProfile,
-                type,
-                shortIdName,
-                value,
-                starCount,
-                percentage,
-                lore,
-                percentLine,
-                rangeLine,
-                rerollLine);
-    }
+        line.append(new TextComponent(" " + id.idName()).withStyle(ChatFormatting.GRAY));
 
-    /**
-     * Create a list of ItemIdentificationContainer corresponding to the given ItemProfile, formatted for item guide items
-     *
-     * @param item the profile of the item
-     * @return a list of appropriately formatted ItemIdentificationContainer
-     */
-    public static List<ItemIdentificationContainer> identificationsFromProfile(ItemProfile item) {
-        List<ItemIdentificationContainer> ids = new ArrayList<>();
+        if (id.isNew()) line.append(new TextComponent(" [NEW]").withStyle(ChatFormatting.GOLD));
 
-        for (Map.Entry<String, IdentificationProfile> entry : item.getStatuses().entrySet()) {
-            IdentificationProfile idProfile = entry.getValue();
-            IdentificationModifier type = idProfile.getType();
-            String idName = entry.getKey();
-            MutableComponent line;
-
-            boolean inverted = IdentificationOrderer.INSTANCE.isInverted(idName);
-            if (idProfile.hasConstantValue()) {
-                int value = idProfile.getBaseValue();
-                line = new TextComponent((value > 0 ? "+" : "") + value + type.getInGame(idName));
-                line.setStyle(
-                        Style.EMPTY.withColor(inverted ^ (value > 0) ? ChatFormatting.GREEN : ChatFormatting.RED));
-            } else {
-                int min = idProfile.getMin();
-                int max = idProfile.getMax();
-                ChatFormatting mainColor = inverted ^ (min > 0) ? ChatFormatting.GREEN : ChatFormatting.RED;
-                ChatFormatting textColor = inverted ^ (min > 0) ? ChatFormatting.DARK_GREEN : ChatFormatting.DARK_RED;
-                line = new TextComponent((min > 0 ? "+" : "") + min).withStyle(mainColor);
-                line.append(new TextComponent(" to ").withStyle(textColor));
-                line.append(
-                        new TextComponent((max > 0 ? "+" : "") + max + type.getInGame(idName)).withStyle(mainColor));
-            }
-
-            line.append(new TextComponent(" " + IdentificationProfile.getAsLongName(idName))
-                    .withStyle(ChatFormatting.GRAY));
+        return line;
+    }
 
-            ItemIdentificationContainer id =
-                    new ItemIdentificationContainer(item, idProfile, type, idName, 0, 0, -1, line, line, line, line);
-            ids.add(id);
-        }
+    private static boolean hasRoll(ItemIdentificationContainer id) {
+        return !id.isNew() && !id.isFixed();
+    }
 
-        return ids;
+    private static boolean isInverted(ItemIdentificationContainer id) {
+        return IdentificationOrderer.INSTANCE.isInverted(id.shortIdName());
     }
 
     /**
@@ -191,13 +230,32 @@ public final class WynnItemUtils {
      * @return the styled percentage text component
      */
     public static MutableComponent getPercentageTextComponent(float percentage) {
-        Style color = Style.EMPTY
-                .withColor(
-                        ItemStatInfoFeature.colorLerp
-                                ? getPercentageColor(percentage)
-                                : getFlatPercentageColor(percentage))
+        return new TextComponent(getPercentageText(percentage))
+                .withStyle(getPercentageStyle(percentage, ItemStatInfoFeature.colorLerp));
+    }
+
+    public static String getPercentageText(float percentage) {
+        return String.format(Utils.getGameLocale(), " [%.1f%%]", percentage);
+    }
+
+    /**
+     * @param percentage the percent roll of the ID
+     * @param colorLerp whether to blend between the colors rather than use the flat color of the percentage range
+     * @return the style of the percentage text component
+     */
+    public static Style getPercentageStyle(float percentage, boolean colorLerp) {
+        return Style.EMPTY
+                .withColor(colorLerp ? getPercentageColor(percentage) : getFlatPercentageColor(percentage))
                 .withItalic(false);
-        return new TextComponent(String.format(Utils.getGameLocale(), " [%.1f%%]", percentage)).withStyle(color);
+    }
+
+    /**
+     * @param percentage the percent roll of the ID
+     * @param colorLerp whether to blend between the colors rather than use the flat color of the percentage range
+     * @return the RGB color of the percentage text component
+     */
+    public static int getPercentageRgb(float percentage, boolean colorLerp) {
+        return (colorLerp ? getPercentageColor(percentage) : getFlatPercentageColor(percentage)).getValue();
     }
 
     /**